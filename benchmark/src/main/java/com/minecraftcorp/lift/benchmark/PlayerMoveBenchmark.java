@@ -0,0 +1,70 @@
+package com.minecraftcorp.lift.benchmark;
+
+import com.minecraftcorp.lift.benchmark.fixture.FakeEntity;
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture;
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture.BuiltShaft;
+import com.minecraftcorp.lift.bukkit.listener.PlayerListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Move events of a player that walks into and past running lifts, with preventEntry enabled
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+public class PlayerMoveBenchmark {
+
+	@Param({"0", "50", "200"})
+	int rides;
+	private LiftFixture fixture;
+	private PlayerListener listener;
+	private FakeEntity walker;
+	private final List<Location> path = new ArrayList<>();
+	private int step;
+
+	@Setup
+	public void setUp() {
+		Map<String, Object> config = LiftFixture.defaultConfig();
+		config.put("preventEntry", true);
+		fixture = new LiftFixture(config);
+		listener = new PlayerListener();
+		World world = fixture.getWorld().asWorld();
+		int y = LiftFixture.BASE_Y + 5;
+		for (int i = 0; i < Math.max(rides, 1); i++) {
+			int x = i * 4;
+			if (i < rides) {
+				BuiltShaft shaft = fixture.buildShaft(x, 0, 2, 16, 4);
+				fixture.spawnPassengers(shaft, 1, 1, 0);
+				fixture.startRide(shaft, 1);
+			}
+			// one step into the shaft, one step next to it
+			path.add(new Location(world, x + 1.0, y, 1.0));
+			path.add(new Location(world, x - 0.5, y, 1.0));
+		}
+		walker = FakeEntity.player("walker", fixture.getWorld(), -10, y, 1);
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.finishRides();
+	}
+
+	@Benchmark
+	public void onPlayerMove() {
+		Location from = path.get(step);
+		step = (step + 1) % path.size();
+		Location to = path.get(step);
+		walker.teleport(to);
+		listener.onPlayerMove(new PlayerMoveEvent(walker.asPlayer(), from, to));
+	}
+}
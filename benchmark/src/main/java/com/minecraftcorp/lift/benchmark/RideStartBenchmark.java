@@ -0,0 +1,46 @@
+package com.minecraftcorp.lift.benchmark;
+
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture;
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture.BuiltShaft;
+import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Clicking the button of a cached shaft until the ride has started. As every ride has to end before the next one
+ * can start, this includes ending the ride and restoring its floors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+public class RideStartBenchmark {
+
+	@Param({"1", "3"})
+	int width;
+	@Param({"2", "16"})
+	int floors;
+	@Param({"1", "5", "20"})
+	int passengers;
+	private LiftFixture fixture;
+	private BuiltShaft shaft;
+
+	@Setup
+	public void setUp() {
+		fixture = new LiftFixture(LiftFixture.defaultConfig());
+		shaft = fixture.buildShaft(0, 0, width, floors, 4);
+		fixture.spawnPassengers(shaft, 1, 1, passengers - 1);
+		// scan once, so that the shaft is cached
+		fixture.startRide(shaft, 1);
+		fixture.finishRides();
+	}
+
+	@Benchmark
+	public BukkitElevator startAndFinishRide() {
+		BukkitElevator elevator = fixture.startRide(shaft, 1);
+		fixture.finishRides();
+		return elevator;
+	}
+}
@@ -0,0 +1,47 @@
+package com.minecraftcorp.lift.benchmark;
+
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture;
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture.BuiltShaft;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * One server tick of the plugin while many rides are running. Passengers don't move, so rides never end and every
+ * tick has the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+public class RideTickBenchmark {
+
+	@Param({"1", "50", "200"})
+	int rides;
+	@Param({"1", "5"})
+	int passengersPerRide;
+	@Param("2")
+	int width;
+	private LiftFixture fixture;
+
+	@Setup
+	public void setUp() {
+		fixture = new LiftFixture(LiftFixture.defaultConfig());
+		for (int i = 0; i < rides; i++) {
+			BuiltShaft shaft = fixture.buildShaft(i * (width + 2), 0, width, 16, 4);
+			fixture.spawnPassengers(shaft, 1, 1, passengersPerRide - 1);
+			fixture.startRide(shaft, 1);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		fixture.finishRides();
+	}
+
+	@Benchmark
+	public void tick() {
+		fixture.tick();
+	}
+}
@@ -0,0 +1,49 @@
+package com.minecraftcorp.lift.benchmark;
+
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture;
+import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.service.ElevatorFactory;
+import com.minecraftcorp.lift.bukkit.service.ShaftCache;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Creating an elevator from a clicked button, with and without a cached shaft
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+EnableDynamicAgentLoading")
+public class ScanBenchmark {
+
+	@Param({"1", "3", "5"})
+	int width;
+	@Param({"2", "16", "64"})
+	int floors;
+	@Param("4")
+	int floorSpacing;
+	private Block button;
+
+	@Setup
+	public void setUp() {
+		LiftFixture fixture = new LiftFixture(LiftFixture.defaultConfig());
+		button = fixture.buildShaft(0, 0, width, floors, floorSpacing)
+				.buttons()
+				.get(0);
+	}
+
+	@Benchmark
+	public Optional<BukkitElevator> scanUncached() {
+		ShaftCache.INSTANCE.clear();
+		return ElevatorFactory.createElevator(button);
+	}
+
+	@Benchmark
+	public Optional<BukkitElevator> scanCached() {
+		return ElevatorFactory.createElevator(button);
+	}
+}
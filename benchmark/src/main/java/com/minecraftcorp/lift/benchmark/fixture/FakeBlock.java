@@ -0,0 +1,105 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import java.util.Objects;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Sign;
+
+/**
+ * Position in a {@link FakeWorld}. Like Bukkit blocks, it always shows the current type at its position.
+ */
+public class FakeBlock {
+
+	private final FakeWorld world;
+	private final int x;
+	private final int y;
+	private final int z;
+
+	FakeBlock(FakeWorld world, int x, int y, int z) {
+		this.world = world;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	public World getWorld() {
+		return world.asWorld();
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getZ() {
+		return z;
+	}
+
+	public Material getType() {
+		return world.getType(x, y, z);
+	}
+
+	public void setType(Material type) {
+		world.setType(x, y, z, type);
+	}
+
+	public void setType(Material type, boolean applyPhysics) {
+		world.setType(x, y, z, type);
+	}
+
+	public boolean isEmpty() {
+		return getType().isAir();
+	}
+
+	public Block getRelative(int modX, int modY, int modZ) {
+		return world.getBlockAt(x + modX, y + modY, z + modZ);
+	}
+
+	public Block getRelative(BlockFace face) {
+		return getRelative(face, 1);
+	}
+
+	public Block getRelative(BlockFace face, int distance) {
+		return getRelative(face.getModX() * distance, face.getModY() * distance, face.getModZ() * distance);
+	}
+
+	public Location getLocation() {
+		return new Location(world.asWorld(), x, y, z);
+	}
+
+	public BlockState getState() {
+		Material type = getType();
+		if (type.name().endsWith("_SIGN")) {
+			return Fakes.of(Sign.class, new FakeSign(world, x, y, z, type));
+		}
+		return Fakes.of(BlockState.class, new FakeBlockState(world, x, y, z, type));
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof FakeBlock block)) {
+			return false;
+		}
+		return x == block.x && y == block.y && z == block.z && world == block.world;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(world.getUID(), x, y, z);
+	}
+
+	@Override
+	public String toString() {
+		return "FakeBlock{" + x + ", " + y + ", " + z + ", " + getType() + "}";
+	}
+}
@@ -0,0 +1,74 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Snapshot of a block type. {@link #update(boolean, boolean)} writes it back to the world.
+ */
+public class FakeBlockState {
+
+	protected final FakeWorld world;
+	protected final int x;
+	protected final int y;
+	protected final int z;
+	private Material type;
+
+	FakeBlockState(FakeWorld world, int x, int y, int z, Material type) {
+		this.world = world;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.type = type;
+	}
+
+	public Block getBlock() {
+		return world.getBlockAt(x, y, z);
+	}
+
+	public World getWorld() {
+		return world.asWorld();
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getZ() {
+		return z;
+	}
+
+	public Location getLocation() {
+		return new Location(world.asWorld(), x, y, z);
+	}
+
+	public Material getType() {
+		return type;
+	}
+
+	public void setType(Material type) {
+		this.type = type;
+	}
+
+	public boolean update() {
+		return update(false, true);
+	}
+
+	public boolean update(boolean force) {
+		return update(force, true);
+	}
+
+	public boolean update(boolean force, boolean applyPhysics) {
+		if (!force && world.getType(x, y, z) != type) {
+			return false;
+		}
+		world.setType(x, y, z, type);
+		return true;
+	}
+}
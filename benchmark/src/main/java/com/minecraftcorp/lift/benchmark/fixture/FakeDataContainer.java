@@ -0,0 +1,60 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.bukkit.NamespacedKey;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+/**
+ * Persistent data of a block state. Values are stored as they are, without converting them to primitive types.
+ */
+public class FakeDataContainer {
+
+	private final Map<NamespacedKey, Object> values;
+	private final PersistentDataContainer container = Fakes.of(PersistentDataContainer.class, this);
+
+	FakeDataContainer(Map<NamespacedKey, Object> values) {
+		this.values = new HashMap<>(values);
+	}
+
+	public PersistentDataContainer asContainer() {
+		return container;
+	}
+
+	Map<NamespacedKey, Object> getValues() {
+		return values;
+	}
+
+	// PersistentDataContainer
+
+	public <P, C> void set(NamespacedKey key, PersistentDataType<P, C> type, C value) {
+		values.put(key, value);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <P, C> C get(NamespacedKey key, PersistentDataType<P, C> type) {
+		return (C) values.get(key);
+	}
+
+	public <P, C> C getOrDefault(NamespacedKey key, PersistentDataType<P, C> type, C defaultValue) {
+		C value = get(key, type);
+		return value != null ? value : defaultValue;
+	}
+
+	public <P, C> boolean has(NamespacedKey key, PersistentDataType<P, C> type) {
+		return values.containsKey(key);
+	}
+
+	public boolean has(NamespacedKey key) {
+		return values.containsKey(key);
+	}
+
+	public void remove(NamespacedKey key) {
+		values.remove(key);
+	}
+
+	public boolean isEmpty() {
+		return values.isEmpty();
+	}
+}
@@ -0,0 +1,203 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.util.BoundingBox;
+import org.bukkit.util.Vector;
+
+/**
+ * Entity or player with a position, velocity and the flight state that lifts modify. It only moves if physics of
+ * its world are enabled.
+ */
+public class FakeEntity {
+
+	private static long nextId;
+	private final UUID uniqueId = new UUID(0, nextId++);
+	private final String name;
+	private final FakeWorld world;
+	private final Entity entity;
+	private final double width = 0.6;
+	private final double height = 1.8;
+	private double x;
+	private double y;
+	private double z;
+	private Vector velocity = new Vector();
+	private boolean gravity = true;
+	private float fallDistance;
+	private boolean allowFlight;
+	private int receivedMessages;
+
+	private FakeEntity(String name, FakeWorld world, double x, double y, double z, Class<? extends Entity> type) {
+		this.name = name;
+		this.world = world;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		entity = Fakes.of(type, this);
+	}
+
+	public static FakeEntity player(String name, FakeWorld world, double x, double y, double z) {
+		FakeEntity player = new FakeEntity(name, world, x, y, z, Player.class);
+		world.addEntity(player);
+		return player;
+	}
+
+	public static FakeEntity mob(String name, FakeWorld world, double x, double y, double z) {
+		FakeEntity mob = new FakeEntity(name, world, x, y, z, Entity.class);
+		world.addEntity(mob);
+		return mob;
+	}
+
+	public Entity asEntity() {
+		return entity;
+	}
+
+	public Player asPlayer() {
+		return (Player) entity;
+	}
+
+	public int getReceivedMessages() {
+		return receivedMessages;
+	}
+
+	/**
+	 * Move by the current velocity. Falling entities land on solid blocks, other entities pass through blocks.
+	 */
+	void move() {
+		if (gravity) {
+			velocity.setY(velocity.getY() - 0.08);
+		}
+		double nextY = y + velocity.getY();
+		if (gravity && velocity.getY() < 0) {
+			int blockX = (int) Math.floor(x);
+			int blockZ = (int) Math.floor(z);
+			for (int blockY = (int) Math.floor(y) - 1; blockY >= (int) Math.floor(nextY); blockY--) {
+				if (world.getType(blockX, blockY, blockZ).isSolid()) {
+					y = blockY + 1;
+					velocity.setY(0);
+					fallDistance = 0;
+					return;
+				}
+			}
+		}
+		x += velocity.getX();
+		y = nextY;
+		z += velocity.getZ();
+	}
+
+	// Entity
+
+	public UUID getUniqueId() {
+		return uniqueId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public World getWorld() {
+		return world.asWorld();
+	}
+
+	public Location getLocation() {
+		return new Location(world.asWorld(), x, y, z);
+	}
+
+	public BoundingBox getBoundingBox() {
+		return new BoundingBox(x - width / 2, y, z - width / 2, x + width / 2, y + height, z + width / 2);
+	}
+
+	public double getWidth() {
+		return width;
+	}
+
+	public double getHeight() {
+		return height;
+	}
+
+	public boolean isInsideVehicle() {
+		return false;
+	}
+
+	public Entity getVehicle() {
+		return null;
+	}
+
+	public Vector getVelocity() {
+		return velocity.clone();
+	}
+
+	public void setVelocity(Vector velocity) {
+		this.velocity = velocity.clone();
+	}
+
+	public boolean hasGravity() {
+		return gravity;
+	}
+
+	public void setGravity(boolean gravity) {
+		this.gravity = gravity;
+	}
+
+	public float getFallDistance() {
+		return fallDistance;
+	}
+
+	public void setFallDistance(float fallDistance) {
+		this.fallDistance = fallDistance;
+	}
+
+	public boolean teleport(Location location) {
+		x = location.getX();
+		y = location.getY();
+		z = location.getZ();
+		return true;
+	}
+
+	public boolean teleport(Location location, PlayerTeleportEvent.TeleportCause cause) {
+		return teleport(location);
+	}
+
+	public boolean isValid() {
+		return true;
+	}
+
+	public boolean isDead() {
+		return false;
+	}
+
+	public void sendMessage(String message) {
+		receivedMessages++;
+	}
+
+	// Player
+
+	public boolean isOnline() {
+		return true;
+	}
+
+	public boolean getAllowFlight() {
+		return allowFlight;
+	}
+
+	public void setAllowFlight(boolean allowFlight) {
+		this.allowFlight = allowFlight;
+	}
+
+	public boolean isFlying() {
+		return false;
+	}
+
+	public boolean hasPermission(String permission) {
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "FakeEntity{" + name + "}";
+	}
+}
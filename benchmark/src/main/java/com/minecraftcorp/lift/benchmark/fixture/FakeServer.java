@@ -0,0 +1,90 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import java.util.logging.Logger;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.HangingSign;
+import org.bukkit.block.data.type.Sign;
+import org.bukkit.block.data.type.WallHangingSign;
+import org.bukkit.block.data.type.WallSign;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+
+/**
+ * Server without plugins, that only provides what the plugin needs while loading its config and registering its
+ * listeners
+ */
+public class FakeServer {
+
+	private static final Logger logger = Logger.getLogger("LiftBenchmark");
+	private final Server server = Fakes.of(Server.class, this);
+	private final PluginManager pluginManager = Fakes.of(PluginManager.class, new Plugins());
+
+	public Server asServer() {
+		return server;
+	}
+
+	public String getName() {
+		return "FakeServer";
+	}
+
+	public String getVersion() {
+		return "benchmark";
+	}
+
+	public String getBukkitVersion() {
+		return "benchmark";
+	}
+
+	public Logger getLogger() {
+		return logger;
+	}
+
+	public PluginManager getPluginManager() {
+		return pluginManager;
+	}
+
+	public boolean getAllowFlight() {
+		return false;
+	}
+
+	public boolean isPrimaryThread() {
+		return true;
+	}
+
+	public BlockData createBlockData(Material material) {
+		String name = material.name();
+		Class<? extends BlockData> type;
+		if (name.endsWith("_WALL_HANGING_SIGN")) {
+			type = WallHangingSign.class;
+		} else if (name.endsWith("_HANGING_SIGN")) {
+			type = HangingSign.class;
+		} else if (name.endsWith("_WALL_SIGN")) {
+			type = WallSign.class;
+		} else if (name.endsWith("_SIGN")) {
+			type = Sign.class;
+		} else {
+			type = BlockData.class;
+		}
+		return Fakes.of(type, new Data(material));
+	}
+
+	public static class Plugins {
+
+		public Plugin getPlugin(String name) {
+			return null;
+		}
+
+		public boolean isPluginEnabled(String name) {
+			return false;
+		}
+	}
+
+	public record Data(Material material) {
+
+		public Material getMaterial() {
+			return material;
+		}
+	}
+}
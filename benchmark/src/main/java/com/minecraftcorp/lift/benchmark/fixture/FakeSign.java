@@ -0,0 +1,61 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.sign.Side;
+import org.bukkit.block.sign.SignSide;
+import org.bukkit.persistence.PersistentDataContainer;
+
+/**
+ * Sign state with a copy of the sign text and persistent data. Both sides share the same text.
+ */
+public class FakeSign extends FakeBlockState {
+
+	private final String[] lines;
+	private final FakeDataContainer data;
+
+	FakeSign(FakeWorld world, int x, int y, int z, Material type) {
+		super(world, x, y, z, type);
+		String[] current = world.getSignLines(x, y, z);
+		lines = Arrays.copyOf(current, current.length);
+		data = new FakeDataContainer(world.getPersistentData(x, y, z));
+	}
+
+	public SignSide getSide(Side side) {
+		return Fakes.of(SignSide.class, new SideText());
+	}
+
+	public PersistentDataContainer getPersistentDataContainer() {
+		return data.asContainer();
+	}
+
+	@Override
+	public boolean update(boolean force, boolean applyPhysics) {
+		if (!super.update(force, applyPhysics)) {
+			return false;
+		}
+		String[] current = world.getSignLines(x, y, z);
+		System.arraycopy(lines, 0, current, 0, lines.length);
+		Map<NamespacedKey, Object> persistentData = world.getPersistentData(x, y, z);
+		persistentData.clear();
+		persistentData.putAll(data.getValues());
+		return true;
+	}
+
+	public class SideText {
+
+		public String getLine(int index) {
+			return lines[index];
+		}
+
+		public void setLine(int index, String line) {
+			lines[index] = line;
+		}
+
+		public String[] getLines() {
+			return lines.clone();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Predicate;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
+
+/**
+ * In-memory world that only knows block types, sign text, persistent data of signs and entities. Blocks that were
+ * never set are air.
+ */
+public class FakeWorld {
+
+	private final UUID uid;
+	private final String name;
+	private final World world;
+	private final Map<Long, Material> types = new HashMap<>();
+	private final Map<Long, String[]> signLines = new HashMap<>();
+	private final Map<Long, Map<NamespacedKey, Object>> persistentData = new HashMap<>();
+	private final Map<Long, Block> blocks = new HashMap<>();
+	private final List<FakeEntity> entities = new ArrayList<>();
+	private final int minHeight;
+	private final int maxHeight;
+	private boolean physics;
+
+	public FakeWorld(String name, int minHeight, int maxHeight) {
+		this.name = name;
+		uid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+		this.minHeight = minHeight;
+		this.maxHeight = maxHeight;
+		world = Fakes.of(World.class, this);
+	}
+
+	public World asWorld() {
+		return world;
+	}
+
+	/**
+	 * Whether {@link #tick()} moves entities by their velocity. Without physics, entities stay where they are, so
+	 * rides don't end.
+	 */
+	public void setPhysics(boolean physics) {
+		this.physics = physics;
+	}
+
+	public void tick() {
+		if (!physics) {
+			return;
+		}
+		entities.forEach(FakeEntity::move);
+	}
+
+	public void setType(int x, int y, int z, Material type) {
+		if (type.isAir()) {
+			types.remove(toKey(x, y, z));
+		} else {
+			types.put(toKey(x, y, z), type);
+		}
+	}
+
+	public String[] getSignLines(int x, int y, int z) {
+		return signLines.computeIfAbsent(toKey(x, y, z), key -> new String[]{"", "", "", ""});
+	}
+
+	public Map<NamespacedKey, Object> getPersistentData(int x, int y, int z) {
+		return persistentData.computeIfAbsent(toKey(x, y, z), key -> new HashMap<>());
+	}
+
+	public void addEntity(FakeEntity entity) {
+		entities.add(entity);
+	}
+
+	public void removeEntity(FakeEntity entity) {
+		entities.remove(entity);
+	}
+
+	public List<FakeEntity> getFakeEntities() {
+		return entities;
+	}
+
+	// World
+
+	public UUID getUID() {
+		return uid;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMinHeight() {
+		return minHeight;
+	}
+
+	public int getMaxHeight() {
+		return maxHeight;
+	}
+
+	public Material getType(int x, int y, int z) {
+		return types.getOrDefault(toKey(x, y, z), Material.AIR);
+	}
+
+	public Block getBlockAt(int x, int y, int z) {
+		return blocks.computeIfAbsent(toKey(x, y, z), key -> Fakes.of(Block.class, new FakeBlock(this, x, y, z)));
+	}
+
+	public Block getBlockAt(Location location) {
+		return getBlockAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+	}
+
+	public Collection<Entity> getNearbyEntities(BoundingBox box, Predicate<? super Entity> filter) {
+		List<Entity> nearby = new ArrayList<>();
+		for (FakeEntity entity : entities) {
+			if (box.overlaps(entity.getBoundingBox()) && (filter == null || filter.test(entity.asEntity()))) {
+				nearby.add(entity.asEntity());
+			}
+		}
+		return nearby;
+	}
+
+	public List<Entity> getEntities() {
+		return entities.stream()
+				.map(FakeEntity::asEntity)
+				.toList();
+	}
+
+	@Override
+	public String toString() {
+		return "FakeWorld{" + name + "}";
+	}
+
+	private static long toKey(int x, int y, int z) {
+		return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+	}
+}
@@ -0,0 +1,92 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates Bukkit interface instances backed by plain fixture classes. A call is delegated to the public method of
+ * the fixture class with the same signature. Unknown void methods are ignored, other unknown methods fail, so that
+ * the fixture can grow with the API that is actually used by the plugin.
+ */
+public final class Fakes {
+
+	private static final Map<Class<?>, Map<Method, Optional<Method>>> resolved = new ConcurrentHashMap<>();
+
+	private Fakes() {
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> T of(Class<T> type, Object implementation) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+				new Handler(type, implementation));
+	}
+
+	/**
+	 * @return the fixture object behind 'object', or 'object' itself if it is no fake
+	 */
+	public static Object unwrap(Object object) {
+		if (object != null && Proxy.isProxyClass(object.getClass()) &&
+				Proxy.getInvocationHandler(object) instanceof Handler handler) {
+			return handler.implementation;
+		}
+		return object;
+	}
+
+	private record Handler(Class<?> type, Object implementation) implements InvocationHandler {
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals":
+					if (method.getParameterCount() == 1) {
+						return implementation.equals(unwrap(args[0]));
+					}
+					break;
+				case "hashCode":
+					if (method.getParameterCount() == 0) {
+						return implementation.hashCode();
+					}
+					break;
+				case "toString":
+					if (method.getParameterCount() == 0) {
+						return implementation.toString();
+					}
+					break;
+				default:
+					break;
+			}
+			Optional<Method> target = resolve(implementation.getClass(), method);
+			if (target.isPresent()) {
+				try {
+					return target.get().invoke(implementation, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+			if (method.isDefault()) {
+				return InvocationHandler.invokeDefault(proxy, method, args);
+			}
+			if (method.getReturnType() == void.class) {
+				return null;
+			}
+			throw new UnsupportedOperationException(type.getSimpleName() + "#" + method.getName() +
+					" is not supported by the benchmark fixture");
+		}
+
+		private static Optional<Method> resolve(Class<?> implementationClass, Method method) {
+			return resolved.computeIfAbsent(implementationClass, clazz -> new ConcurrentHashMap<>())
+					.computeIfAbsent(method, key -> {
+						try {
+							return Optional.of(implementationClass.getMethod(key.getName(), key.getParameterTypes()));
+						} catch (NoSuchMethodException e) {
+							return Optional.empty();
+						}
+					});
+		}
+	}
+}
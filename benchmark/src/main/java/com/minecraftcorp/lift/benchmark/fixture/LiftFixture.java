@@ -0,0 +1,239 @@
+package com.minecraftcorp.lift.benchmark.fixture;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.model.FloorSignData;
+import com.minecraftcorp.lift.bukkit.service.*;
+import com.minecraftcorp.lift.common.model.FloorSign;
+import com.minecraftcorp.lift.common.model.Messages;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.*;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.Sign;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.mockito.Mockito;
+
+/**
+ * Runs the plugin against a {@link FakeWorld}. Shafts are built from iron base blocks, glass floors, stone buttons
+ * and oak wall signs, like on a server with the default config. Ticks are driven manually by {@link #tick()}.
+ */
+public class LiftFixture {
+
+	public static final int BASE_Y = -60;
+	public static final Material BASE = Material.IRON_BLOCK;
+	public static final Material FLOOR = Material.GLASS;
+	public static final Material BUTTON = Material.STONE_BUTTON;
+	public static final Material SIGN = Material.OAK_WALL_SIGN;
+	public static final Material CEILING = Material.STONE;
+	private static final FakeServer server = new FakeServer();
+	private static LiftPlugin plugin;
+	private static File dataFolder;
+	private final FakeWorld world = new FakeWorld("world", -64, 320);
+
+	/**
+	 * @param config values that replace the default config.yml, see {@link #defaultConfig()}
+	 */
+	public LiftFixture(Map<String, Object> config) {
+		bootstrap();
+		loadConfig(config);
+	}
+
+	/**
+	 * Config for stable measurements: no sounds, no limits, synchronous scans and rides that don't time out
+	 */
+	public static Map<String, Object> defaultConfig() {
+		Map<String, Object> config = new HashMap<>();
+		config.put("configVersion", 2);
+		config.put("debug", false);
+		config.put("soundEnabled", false);
+		config.put("asyncScan", false);
+		config.put("secondsUntilTimeout", 3600);
+		config.put("maxLiftArea", 1024);
+		config.put("maxRides", 0);
+		config.put("maxPassengers", 0);
+		config.put("maxPassengersPerRide", 0);
+		config.put("maxQueuedRides", 0);
+		return config;
+	}
+
+	public FakeWorld getWorld() {
+		return world;
+	}
+
+	public LiftPlugin getPlugin() {
+		return plugin;
+	}
+
+	/**
+	 * Build a square shaft with its lowest corner at x, z. Floor 1 is on top of the base blocks, every further
+	 * floor is 'floorSpacing' blocks above the previous one. All signs select the top floor from floor 1 and floor
+	 * 1 from any other floor.
+	 */
+	public BuiltShaft buildShaft(int x, int z, int width, int floors, int floorSpacing) {
+		if (floorSpacing < 4) {
+			throw new IllegalArgumentException("Floors need a spacing of at least 4 blocks for button and sign");
+		}
+		List<Block> buttons = new ArrayList<>();
+		for (int level = 1; level <= floors; level++) {
+			int floorY = BASE_Y + (level - 1) * floorSpacing;
+			fill(x, floorY, z, width, level == 1 ? BASE : FLOOR);
+			world.setType(x, floorY + 2, z, BUTTON);
+			world.setType(x, floorY + 3, z, SIGN);
+			writeSign(x, floorY + 3, z, level, level == 1 ? floors : 1);
+			buttons.add(world.asWorld().getBlockAt(x, floorY + 2, z));
+		}
+		fill(x, BASE_Y + floors * floorSpacing, z, width, CEILING);
+		return new BuiltShaft(x, z, width, floorSpacing, buttons);
+	}
+
+	/**
+	 * Spawn entities standing on a floor, spread over the columns of the shaft
+	 */
+	public List<FakeEntity> spawnPassengers(BuiltShaft shaft, int level, int players, int mobs) {
+		List<FakeEntity> passengers = new ArrayList<>();
+		int floorY = shaft.getFloorY(level);
+		for (int i = 0; i < players + mobs; i++) {
+			int column = i % (shaft.width() * shaft.width());
+			double x = shaft.x() + column % shaft.width() + 0.5;
+			double z = shaft.z() + column / shaft.width() + 0.5;
+			passengers.add(i < players ?
+					FakeEntity.player("player" + i, world, x, floorY + 1, z) :
+					FakeEntity.mob("mob" + i, world, x, floorY + 1, z));
+		}
+		return passengers;
+	}
+
+	/**
+	 * Click the button of a floor like a player would do
+	 */
+	public BukkitElevator startRide(BuiltShaft shaft, int level) {
+		BukkitElevator elevator = ElevatorFactory.createElevator(shaft.buttons().get(level - 1))
+				.orElseThrow(() -> new IllegalStateException("No elevator at level " + level));
+		ElevatorExecutor.runElevator(elevator);
+		return elevator;
+	}
+
+	/**
+	 * Run one server tick of the plugin and the world physics
+	 */
+	public void tick() {
+		tickPlugin();
+		world.tick();
+	}
+
+	/**
+	 * Run one server tick of the plugin only
+	 */
+	public void tickPlugin() {
+		ElevatorScheduler.INSTANCE.run();
+	}
+
+	/**
+	 * Let all passengers arrive immediately and tick until all lifts restored their floors
+	 */
+	public void finishRides() {
+		new ArrayList<>(plugin.getActiveLifts()).forEach(BukkitElevator::clearPassengers);
+		for (int i = 0; i < 100 && !plugin.getActiveLifts().isEmpty(); i++) {
+			tick();
+		}
+		if (!plugin.getActiveLifts().isEmpty()) {
+			throw new IllegalStateException(plugin.getActiveLifts().size() + " lifts did not finish");
+		}
+	}
+
+	private void fill(int x, int y, int z, int width, Material type) {
+		for (int dx = 0; dx < width; dx++) {
+			for (int dz = 0; dz < width; dz++) {
+				world.setType(x + dx, y, z + dz, type);
+			}
+		}
+	}
+
+	private void writeSign(int x, int y, int z, int level, int destLevel) {
+		Messages messages = Messages.INSTANCE;
+		String[] lines = world.getSignLines(x, y, z);
+		lines[FloorSign.LINE_CURRENT_LEVEL] = messages.getCurrentFloor() + FloorSign.SEPARATOR + " " + level;
+		lines[FloorSign.LINE_CURRENT_NAME] = "Floor " + level;
+		lines[FloorSign.LINE_DEST_LEVEL] = messages.getDestination() + FloorSign.SEPARATOR + " " + destLevel;
+		lines[FloorSign.LINE_DEST_NAME] = "Floor " + destLevel;
+		Sign sign = (Sign) world.asWorld().getBlockAt(x, y, z).getState();
+		new FloorSignData(FloorSignData.MODEL_VERSION, level, "Floor " + level, destLevel).write(sign);
+		sign.update(true, false);
+	}
+
+	private static void loadConfig(Map<String, Object> values) {
+		YamlConfiguration config = new YamlConfiguration();
+		values.forEach(config::set);
+		try {
+			config.save(new File(dataFolder, "config.yml"));
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write benchmark config", e);
+		}
+		BukkitConfig.INSTANCE.loadConfig(plugin);
+		ShaftCache.INSTANCE.clear();
+	}
+
+	/**
+	 * The plugin cannot be instantiated outside a server, so a mock calls its real methods. Must happen before any
+	 * plugin class is loaded that keeps {@link LiftPlugin#INSTANCE} in a static field.
+	 */
+	private static synchronized void bootstrap() {
+		if (plugin != null) {
+			return;
+		}
+		try {
+			if (Bukkit.getServer() == null) {
+				Bukkit.setServer(server.asServer());
+			}
+			dataFolder = Files.createTempDirectory("lift-benchmark").toFile();
+			dataFolder.deleteOnExit();
+
+			LiftPlugin mock = Mockito.mock(LiftPlugin.class, Mockito.withSettings()
+					.defaultAnswer(Mockito.CALLS_REAL_METHODS));
+			setField(mock, "activeLifts", new HashSet<BukkitElevator>());
+			setField(mock, "activeLiftIndex", new ActiveLiftIndex());
+			setField(mock, "rideStates", new HashMap<UUID, Object>());
+			Mockito.doReturn(server.getLogger()).when(mock).getLogger();
+			// NamespacedKeys of the plugin use its name
+			Mockito.doReturn("LiftReloaded").when(mock).getName();
+			Mockito.doReturn(server.asServer()).when(mock).getServer();
+			Mockito.doReturn(dataFolder).when(mock).getDataFolder();
+			Mockito.doAnswer(invocation -> LiftPlugin.class.getClassLoader()
+					.getResourceAsStream(invocation.getArgument(0)))
+					.when(mock).getResource(Mockito.anyString());
+			LiftPlugin.INSTANCE = mock;
+			plugin = mock;
+		} catch (IOException | ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not set up benchmark fixture", e);
+		}
+		// like LiftPlugin#onEnable, but ticks are driven by the fixture
+		BlockMutationQueue.INSTANCE.start();
+		RideAdmission.INSTANCE.start();
+	}
+
+	private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+		Field field = LiftPlugin.class.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+
+	/**
+	 * @param buttons button of each floor, ordered by level
+	 */
+	public record BuiltShaft(int x, int z, int width, int floorSpacing, List<Block> buttons) {
+
+		public int getFloorY(int level) {
+			return BASE_Y + (level - 1) * floorSpacing;
+		}
+
+		public int getFloors() {
+			return buttons.size();
+		}
+	}
+}
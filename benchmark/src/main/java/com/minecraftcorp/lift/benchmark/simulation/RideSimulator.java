@@ -0,0 +1,198 @@
+package com.minecraftcorp.lift.benchmark.simulation;
+
+import com.minecraftcorp.lift.benchmark.fixture.FakeEntity;
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture;
+import com.minecraftcorp.lift.benchmark.fixture.LiftFixture.BuiltShaft;
+import com.minecraftcorp.lift.benchmark.simulation.Workload.Click;
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Replays a {@link Workload} against a {@link LiftFixture} with entity physics, tick by tick and as fast as
+ * possible. Ticks are counted virtually, so ride statistics only depend on the workload and config. Tick costs are
+ * measured wall clock time of the plugin, without the time of the simulated world.
+ */
+public class RideSimulator {
+
+	private final LiftFixture fixture;
+	private final Workload workload;
+	private final List<BuiltShaft> shafts = new ArrayList<>();
+	private final long maxTicks;
+
+	public RideSimulator(Map<String, Object> config, Workload workload, int width, int floors, int floorSpacing,
+			long maxTicks) {
+		this.workload = workload;
+		this.maxTicks = maxTicks;
+		fixture = new LiftFixture(config);
+		fixture.getWorld().setPhysics(true);
+		for (int i = 0; i < workload.getShafts(); i++) {
+			shafts.add(fixture.buildShaft(i * (width + 2), 0, width, floors, floorSpacing));
+		}
+	}
+
+	public SimulationReport run() {
+		LiftPlugin plugin = fixture.getPlugin();
+		Deque<Click> pending = new ArrayDeque<>(workload.getClicks());
+		List<Ride> rides = new ArrayList<>();
+		List<Ride> running = new ArrayList<>();
+		long[] tickNanos = new long[(int) Math.min(maxTicks, Integer.MAX_VALUE - 8)];
+		int maxActiveLifts = 0;
+		int tick;
+		for (tick = 0; tick < tickNanos.length; tick++) {
+			List<Ride> clicked = new ArrayList<>();
+			while (!pending.isEmpty() && pending.peek().tick() <= tick) {
+				Click click = pending.poll();
+				clicked.add(new Ride(click, tick, fixture.spawnPassengers(shafts.get(click.shaft()), click.level(),
+						click.players(), click.mobs())));
+			}
+
+			long start = System.nanoTime();
+			clicked.forEach(this::click);
+			fixture.tickPlugin();
+			tickNanos[tick] = System.nanoTime() - start;
+
+			fixture.getWorld().tick();
+			rides.addAll(clicked);
+			running.addAll(clicked);
+			maxActiveLifts = Math.max(maxActiveLifts, plugin.getActiveLifts().size());
+			for (Iterator<Ride> iterator = running.iterator(); iterator.hasNext(); ) {
+				Ride ride = iterator.next();
+				if (ride.update(plugin, tick)) {
+					iterator.remove();
+					ride.passengers.forEach(fixture.getWorld()::removeEntity);
+				}
+			}
+			if (pending.isEmpty() && running.isEmpty()) {
+				tick++;
+				break;
+			}
+		}
+		fixture.finishRides();
+		return new SimulationReport(Arrays.copyOf(tickNanos, tick), rides, maxActiveLifts);
+	}
+
+	private void click(Ride ride) {
+		try {
+			fixture.startRide(shafts.get(ride.click.shaft()), ride.click.level());
+		} catch (RuntimeException e) {
+			ride.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+		}
+	}
+
+	/**
+	 * Usage: RideSimulator [key=value ...]. Keys are shafts, rides (per shaft), players, mobs, floors, width,
+	 * spacing, interval, spread, seed, ticks and script (a file for {@link Workload#parse}). Other keys override
+	 * values of config.yml, like maxRides=50.
+	 */
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			if (pair.length != 2) {
+				throw new IllegalArgumentException("Arguments need the format key=value: " + arg);
+			}
+			options.put(pair[0], pair[1]);
+		}
+		int floors = intOption(options, "floors", 16);
+		Workload workload = options.containsKey("script") ?
+				Workload.parse(Files.readAllLines(Path.of(options.remove("script")))) :
+				Workload.generate(intOption(options, "shafts", 200), intOption(options, "rides", 2), floors,
+						intOption(options, "players", 5), intOption(options, "mobs", 0),
+						intOption(options, "interval", 300), intOption(options, "spread", 20),
+						intOption(options, "seed", 1));
+		int width = intOption(options, "width", 2);
+		int spacing = intOption(options, "spacing", 4);
+		long ticks = intOption(options, "ticks", 72000);
+		List.of("shafts", "rides", "players", "mobs", "interval", "spread", "seed").forEach(options::remove);
+
+		Map<String, Object> config = LiftFixture.defaultConfig();
+		config.put("secondsUntilQueueTimeout", 3600);
+		options.forEach((key, value) -> config.put(key, parseConfigValue(value)));
+
+		SimulationReport report = new RideSimulator(config, workload, width, floors, spacing, ticks).run();
+		System.out.println(report.format());
+	}
+
+	private static int intOption(Map<String, String> options, String key, int defaultValue) {
+		String value = options.remove(key);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+
+	private static Object parseConfigValue(String value) {
+		if (value.equals("true") || value.equals("false")) {
+			return Boolean.parseBoolean(value);
+		}
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return value;
+		}
+	}
+
+	/**
+	 * Passengers of one click and the ticks in which their ride started and ended
+	 */
+	static class Ride {
+
+		private final Click click;
+		private final long clickTick;
+		private final List<FakeEntity> passengers;
+		private long startTick = -1;
+		private long endTick = -1;
+		private String error;
+
+		private Ride(Click click, long clickTick, List<FakeEntity> passengers) {
+			this.click = click;
+			this.clickTick = clickTick;
+			this.passengers = passengers;
+		}
+
+		/**
+		 * @return true if the ride has ended or will never start
+		 */
+		private boolean update(LiftPlugin plugin, long tick) {
+			if (error != null) {
+				return true;
+			}
+			boolean riding = passengers.stream()
+					.anyMatch(passenger -> !plugin.isInNoLift(passenger.asEntity()));
+			if (startTick < 0) {
+				if (riding) {
+					startTick = tick;
+				}
+				return false;
+			}
+			if (!riding) {
+				endTick = tick;
+				return true;
+			}
+			return false;
+		}
+
+		boolean isStarted() {
+			return startTick >= 0;
+		}
+
+		boolean isFinished() {
+			return endTick >= 0;
+		}
+
+		/**
+		 * Ticks from the click until the ride started, like when waiting in the queue of rides
+		 */
+		long getWaitTicks() {
+			return startTick - clickTick;
+		}
+
+		long getRideTicks() {
+			return endTick - startTick;
+		}
+
+		String getError() {
+			return error;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.minecraftcorp.lift.benchmark.simulation;
+
+import com.minecraftcorp.lift.benchmark.simulation.RideSimulator.Ride;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-tick cost histogram and ride statistics of a simulation run
+ */
+public class SimulationReport {
+
+	/**
+	 * Upper bounds of histogram buckets in microseconds. A server tick has 50 ms.
+	 */
+	private static final long[] BUCKETS = {50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 20_000, 50_000};
+	private final long[] tickNanos;
+	private final List<Ride> rides;
+	private final int maxActiveLifts;
+
+	SimulationReport(long[] tickNanos, List<Ride> rides, int maxActiveLifts) {
+		this.tickNanos = tickNanos;
+		this.rides = rides;
+		this.maxActiveLifts = maxActiveLifts;
+	}
+
+	public long[] getTickNanos() {
+		return tickNanos;
+	}
+
+	public long getCompletedRides() {
+		return rides.stream()
+				.filter(Ride::isFinished)
+				.count();
+	}
+
+	/**
+	 * Number of ticks per histogram bucket. The last bucket counts ticks of 50 ms and more.
+	 */
+	public long[] getTickHistogram() {
+		long[] counts = new long[BUCKETS.length + 1];
+		for (long nanos : tickNanos) {
+			int bucket = 0;
+			while (bucket < BUCKETS.length && nanos / 1000 >= BUCKETS[bucket]) {
+				bucket++;
+			}
+			counts[bucket]++;
+		}
+		return counts;
+	}
+
+	public String format() {
+		StringBuilder report = new StringBuilder();
+		long[] sorted = tickNanos.clone();
+		Arrays.sort(sorted);
+		long total = Arrays.stream(sorted).sum();
+		report.append(String.format("Ticks: %d, plugin time: %.1f ms, max active lifts: %d%n", sorted.length,
+				total / 1e6, maxActiveLifts));
+		report.append(String.format("Tick cost (us): mean %.1f, p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+				sorted.length == 0 ? 0 : total / 1e3 / sorted.length, percentile(sorted, 50) / 1e3,
+				percentile(sorted, 90) / 1e3, percentile(sorted, 99) / 1e3, percentile(sorted, 100) / 1e3));
+		long[] histogram = getTickHistogram();
+		for (int i = 0; i < histogram.length; i++) {
+			String range = i < BUCKETS.length ? "< " + BUCKETS[i] + " us" : ">= " + BUCKETS[BUCKETS.length - 1] + " us";
+			report.append(String.format("  %-12s %8d%n", range, histogram[i]));
+		}
+
+		List<Ride> started = rides.stream()
+				.filter(Ride::isStarted)
+				.toList();
+		List<Ride> finished = started.stream()
+				.filter(Ride::isFinished)
+				.toList();
+		long failed = rides.stream()
+				.filter(ride -> ride.getError() != null)
+				.count();
+		report.append(String.format("Rides: %d clicked, %d started, %d finished, %d failed%n", rides.size(),
+				started.size(), finished.size(), failed));
+		report.append(formatTicks("Wait ticks", started, Ride::getWaitTicks));
+		report.append(formatTicks("Ride ticks", finished, Ride::getRideTicks));
+		rides.stream()
+				.filter(ride -> ride.getError() != null)
+				.map(Ride::getError)
+				.distinct()
+				.forEach(error -> report.append("  ").append(error).append(System.lineSeparator()));
+		return report.toString();
+	}
+
+	private static String formatTicks(String name, List<Ride> rides, ToLongFunction<Ride> ticks) {
+		long[] sorted = rides.stream()
+				.mapToLong(ticks)
+				.sorted()
+				.toArray();
+		return String.format("%s: p50 %d, p95 %d, max %d%n", name, percentile(sorted, 50), percentile(sorted, 95),
+				percentile(sorted, 100));
+	}
+
+	private static long percentile(long[] sorted, int percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)];
+	}
+}
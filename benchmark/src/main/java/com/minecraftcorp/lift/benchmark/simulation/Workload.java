@@ -0,0 +1,75 @@
+package com.minecraftcorp.lift.benchmark.simulation;
+
+import java.util.*;
+
+/**
+ * Clicks on lift buttons, ordered by the tick in which they happen
+ */
+public class Workload {
+
+	private final List<Click> clicks;
+
+	public Workload(List<Click> clicks) {
+		this.clicks = clicks.stream()
+				.sorted(Comparator.comparingLong(Click::tick))
+				.toList();
+	}
+
+	public List<Click> getClicks() {
+		return clicks;
+	}
+
+	public int getShafts() {
+		return clicks.stream()
+				.mapToInt(Click::shaft)
+				.max()
+				.orElse(-1) + 1;
+	}
+
+	/**
+	 * Rides on every shaft that alternate between the bottom and the top floor. The first ride of each shaft starts
+	 * within 'spread' ticks, further rides follow every 'interval' ticks with a jitter of up to 'spread' ticks. The
+	 * same seed always produces the same workload.
+	 *
+	 * @param interval ticks between two rides of a shaft. It has to be long enough for a ride to finish.
+	 */
+	public static Workload generate(int shafts, int ridesPerShaft, int floors, int players, int mobs, int interval,
+			int spread, long seed) {
+		Random random = new Random(seed);
+		List<Click> clicks = new ArrayList<>();
+		for (int shaft = 0; shaft < shafts; shaft++) {
+			for (int ride = 0; ride < ridesPerShaft; ride++) {
+				long tick = (long) ride * interval + random.nextInt(Math.max(spread, 1));
+				clicks.add(new Click(tick, shaft, ride % 2 == 0 ? 1 : floors, players, mobs));
+			}
+		}
+		return new Workload(clicks);
+	}
+
+	/**
+	 * Parse a script with one click per line: tick, shaft, level, players and mobs separated by spaces. Empty lines
+	 * and lines starting with # are ignored.
+	 */
+	public static Workload parse(List<String> lines) {
+		List<Click> clicks = new ArrayList<>();
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i).trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] values = line.split("\\s+");
+			if (values.length != 5) {
+				throw new IllegalArgumentException("Line " + (i + 1) + " needs tick, shaft, level, players and mobs");
+			}
+			clicks.add(new Click(Long.parseLong(values[0]), Integer.parseInt(values[1]), Integer.parseInt(values[2]),
+					Integer.parseInt(values[3]), Integer.parseInt(values[4])));
+		}
+		return new Workload(clicks);
+	}
+
+	/**
+	 * Entities appear on the floor of the shaft in 'tick', then the button of that floor is clicked
+	 */
+	public record Click(long tick, int shaft, int level, int players, int mobs) {
+	}
+}
@@ -1,17 +1,27 @@
 package com.minecraftcorp.lift.bukkit;
 
 import com.minecraftcorp.lift.bukkit.command.LiftCommand;
+import com.minecraftcorp.lift.bukkit.listener.BlockListener;
 import com.minecraftcorp.lift.bukkit.listener.PlayerListener;
 import com.minecraftcorp.lift.bukkit.listener.VehicleListener;
 import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
 import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.model.RideState;
+import com.minecraftcorp.lift.bukkit.service.ActiveLiftIndex;
+import com.minecraftcorp.lift.bukkit.service.BlockMutationQueue;
+import com.minecraftcorp.lift.bukkit.service.ConfigWatcher;
+import com.minecraftcorp.lift.bukkit.service.ElevatorScheduler;
+import com.minecraftcorp.lift.bukkit.service.RideAdmission;
+import com.minecraftcorp.lift.bukkit.service.ShaftCache;
+import com.minecraftcorp.lift.bukkit.service.ShaftRegistry;
+import com.minecraftcorp.lift.bukkit.service.SignUpdateQueue;
 import com.minecraftcorp.lift.bukkit.service.sound.SoundTask;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import lombok.Getter;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.plugin.java.JavaPlugin;
 
@@ -21,6 +31,8 @@ public class LiftPlugin extends JavaPlugin {
 	public static LiftPlugin INSTANCE;
 	private static final BukkitConfig config = BukkitConfig.INSTANCE;
 	private final Set<BukkitElevator> activeLifts = new HashSet<>();
+	private final ActiveLiftIndex activeLiftIndex = new ActiveLiftIndex();
+	private final Map<UUID, RideState> rideStates = new HashMap<>();
 	private boolean noteBlockAPIEnabled;
 
 	@Override
@@ -29,23 +41,46 @@ public class LiftPlugin extends JavaPlugin {
 		new LiftCommand();
 		new PlayerListener();
 		new VehicleListener();
+		new BlockListener();
 
 		noteBlockAPIEnabled = Bukkit.getPluginManager().isPluginEnabled("NoteBlockAPI");
 		if (!noteBlockAPIEnabled) {
 			logInfo("*** NoteBlockAPI is not installed or not enabled. ***");
 		}
 
-		reload();
+		config.loadConfig(this);
+		onConfigLoaded();
+		ElevatorScheduler.INSTANCE.start();
+		BlockMutationQueue.INSTANCE.start();
+		RideAdmission.INSTANCE.start();
 	}
 
 	@Override
 	public void onDisable() {
+		ConfigWatcher.INSTANCE.stop();
+		// don't leave holes in shafts
+		BlockMutationQueue.INSTANCE.flushAll();
+		SignUpdateQueue.INSTANCE.flush();
+		SoundTask.shutdown();
+		ShaftRegistry.INSTANCE.close();
+	}
 
+	/**
+	 * Read config.yml in the background, so that running lifts don't stutter, and apply it on the main thread
+	 *
+	 * @return a future that completes on the main thread after the config has been applied
+	 */
+	public CompletableFuture<Void> reload() {
+		return config.loadConfigAsync(this)
+				.thenRun(this::onConfigLoaded);
 	}
 
-	public void reload() {
-		config.loadConfig(this);
+	private void onConfigLoaded() {
+		// cached shafts were scanned with the old block configuration
+		ShaftCache.INSTANCE.clear();
+		ShaftRegistry.INSTANCE.update();
 		SoundTask.reload();
+		ConfigWatcher.INSTANCE.update();
 		logInfo("Lift successfully reloaded");
 	}
 
@@ -69,24 +104,49 @@ public class LiftPlugin extends JavaPlugin {
 
 	public void addActiveLift(BukkitElevator elevator) {
 		activeLifts.add(elevator);
+		activeLiftIndex.add(elevator);
 	}
 
 	public void removeActiveLift(BukkitElevator elevator) {
 		activeLifts.remove(elevator);
+		activeLiftIndex.remove(elevator);
+		elevator.getInvolvedEntities()
+				.forEach(entity -> removeRider(entity, elevator));
+	}
+
+	/**
+	 * Get all active lifts whose shaft is near the chunk column of 'location'
+	 */
+	public Set<BukkitElevator> getActiveLiftsNear(Location location) {
+		return activeLiftIndex.getLifts(location);
+	}
+
+	/**
+	 * Remember that 'entity' is passenger or freezer of 'elevator'
+	 */
+	public void addRider(Entity entity, BukkitElevator elevator) {
+		rideStates.computeIfAbsent(entity.getUniqueId(), uuid -> new RideState(elevator));
+	}
+
+	public void removeRider(Entity entity, BukkitElevator elevator) {
+		RideState rideState = rideStates.get(entity.getUniqueId());
+		if (rideState != null && rideState.getElevator() == elevator) {
+			rideStates.remove(entity.getUniqueId());
+		}
+	}
+
+	public Optional<RideState> getRideState(Entity entity) {
+		return Optional.ofNullable(rideStates.get(entity.getUniqueId()));
 	}
 
 	public boolean isInNoLift(Entity entity) {
-		return getUsingElevators(entity).isEmpty();
+		return !rideStates.containsKey(entity.getUniqueId());
 	}
 
 	/**
-	 * Get all elevators that have 'usingEntity' as passenger or freezer
+	 * Get the elevator that has 'usingEntity' as passenger or freezer
 	 */
-	public List<BukkitElevator> getUsingElevators(Entity usingEntity) {
-		return activeLifts.stream()
-				.filter(elevator -> elevator.getInvolvedEntities()
-						.map(Entity::getUniqueId)
-						.anyMatch(e -> e == usingEntity.getUniqueId()))
-				.toList();
+	public Optional<BukkitElevator> getUsingElevator(Entity usingEntity) {
+		return getRideState(usingEntity).map(RideState::getElevator);
 	}
 }
@@ -1,10 +1,13 @@
 package com.minecraftcorp.lift.bukkit.command;
 
 import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.service.stats.LiftStats;
 import com.minecraftcorp.lift.common.model.Permission;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabExecutor;
@@ -12,6 +15,7 @@ import org.bukkit.entity.Player;
 
 public class LiftCommand implements TabExecutor {
 
+	private static final int DEFAULT_SHAFT_LIMIT = 10;
 	private final LiftPlugin plugin = LiftPlugin.INSTANCE;
 
 	public LiftCommand() {
@@ -27,9 +31,12 @@ public class LiftCommand implements TabExecutor {
 		}
 		// command was send by console
 		if (args.length > 0 && args[0].equalsIgnoreCase("reload")) {
-			plugin.reload();
+			reload(sender);
 			return true;
 		}
+		if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+			return handleStatsCommand(sender, args);
+		}
 		return false;
 	}
 
@@ -39,17 +46,76 @@ public class LiftCommand implements TabExecutor {
 				Permission.sendMessage(player, Permission.RELOAD);
 				return false;
 			}
-			plugin.reload();
-			player.sendMessage("Lift successfully reloaded");
+			reload(player);
 			return true;
 		}
+		if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+			if (!Permission.hasPermission(player, Permission.STATS)) {
+				Permission.sendMessage(player, Permission.STATS);
+				return false;
+			}
+			return handleStatsCommand(player, args);
+		}
 		return false;
 	}
 
+	/**
+	 * /lift stats [reset|world|shaft [limit]]
+	 */
+	private boolean handleStatsCommand(CommandSender sender, String[] args) {
+		LiftStats stats = LiftStats.INSTANCE;
+		if (args.length == 1) {
+			stats.format().forEach(sender::sendMessage);
+			return true;
+		}
+		switch (args[1].toLowerCase()) {
+			case "reset" -> {
+				stats.reset();
+				sender.sendMessage("Lift stats reset");
+			}
+			case "world" -> stats.formatWorlds().forEach(sender::sendMessage);
+			case "shaft" -> {
+				int limit = DEFAULT_SHAFT_LIMIT;
+				if (args.length > 2) {
+					try {
+						limit = Math.max(1, Integer.parseInt(args[2]));
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				}
+				stats.formatShafts(limit).forEach(sender::sendMessage);
+			}
+			default -> {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void reload(CommandSender sender) {
+		plugin.reload()
+				.whenComplete((result, e) -> {
+					if (e != null) {
+						Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+						plugin.logError("Could not reload Lift", cause);
+						sender.sendMessage("Could not reload Lift: " + cause.getMessage());
+					} else if (sender instanceof Player) {
+						sender.sendMessage("Lift successfully reloaded");
+					}
+				});
+	}
+
 	@Override
 	public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-		if ("reload".startsWith(args[0]) && args.length == 1) {
-			return Collections.singletonList("reload");
+		if (args.length == 1) {
+			return Stream.of("reload", "stats")
+					.filter(option -> option.startsWith(args[0]))
+					.toList();
+		}
+		if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+			return Stream.of("reset", "world", "shaft")
+					.filter(option -> option.startsWith(args[1]))
+					.toList();
 		}
 		return Collections.emptyList();
 	}
@@ -0,0 +1,101 @@
+package com.minecraftcorp.lift.bukkit.listener;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.service.ShaftCache;
+import java.util.List;
+import org.bukkit.Bukkit;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Keeps the {@link ShaftCache} up to date by dropping shafts whenever a block within them changes
+ */
+public class BlockListener implements Listener {
+
+	private final ShaftCache shaftCache = ShaftCache.INSTANCE;
+
+	public BlockListener() {
+		Bukkit.getServer().getPluginManager().registerEvents(this, LiftPlugin.INSTANCE);
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onBlockPlace(BlockPlaceEvent event) {
+		shaftCache.invalidate(event.getBlock());
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onBlockBreak(BlockBreakEvent event) {
+		shaftCache.invalidate(event.getBlock());
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onBlockPhysics(BlockPhysicsEvent event) {
+		shaftCache.invalidate(event.getBlock(), event.getSourceBlock());
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onPistonExtend(BlockPistonExtendEvent event) {
+		invalidateMoved(event.getBlock(), event.getBlocks(), event);
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onPistonRetract(BlockPistonRetractEvent event) {
+		invalidateMoved(event.getBlock(), event.getBlocks(), event);
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onBlockExplode(BlockExplodeEvent event) {
+		shaftCache.invalidate(event.getBlock());
+		event.blockList().forEach(shaftCache::invalidate);
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onEntityExplode(EntityExplodeEvent event) {
+		event.blockList().forEach(shaftCache::invalidate);
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onFluidFlow(BlockFromToEvent event) {
+		shaftCache.invalidate(event.getToBlock());
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onBlockForm(BlockFormEvent event) {
+		shaftCache.invalidate(event.getBlock());
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onBlockFade(BlockFadeEvent event) {
+		shaftCache.invalidate(event.getBlock());
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onBlockBurn(BlockBurnEvent event) {
+		shaftCache.invalidate(event.getBlock());
+	}
+
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+		shaftCache.invalidate(event.getBlock());
+	}
+
+	@EventHandler
+	public void onWorldUnload(WorldUnloadEvent event) {
+		shaftCache.invalidateWorld(event.getWorld());
+	}
+
+	private void invalidateMoved(Block piston, List<Block> movedBlocks, BlockPistonEvent event) {
+		shaftCache.invalidate(piston);
+		shaftCache.invalidate(piston.getRelative(event.getDirection()));
+		for (Block moved : movedBlocks) {
+			shaftCache.invalidate(moved);
+			shaftCache.invalidate(moved.getRelative(event.getDirection()));
+		}
+	}
+}
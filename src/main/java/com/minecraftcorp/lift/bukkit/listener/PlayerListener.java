@@ -6,11 +6,15 @@ import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
 import com.minecraftcorp.lift.bukkit.model.BukkitFloorSign;
 import com.minecraftcorp.lift.bukkit.service.ElevatorExecutor;
 import com.minecraftcorp.lift.bukkit.service.ElevatorFactory;
+import com.minecraftcorp.lift.bukkit.service.ShaftOccupancy;
+import com.minecraftcorp.lift.common.exception.ElevatorCreateException;
 import com.minecraftcorp.lift.common.exception.ElevatorException;
 import com.minecraftcorp.lift.common.exception.ElevatorUsageException;
 import com.minecraftcorp.lift.common.model.*;
 import com.minecraftcorp.lift.common.util.Calculator;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -22,6 +26,7 @@ import org.bukkit.block.Sign;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.*;
@@ -30,11 +35,13 @@ import org.spigotmc.event.player.PlayerSpawnLocationEvent;
 
 public class PlayerListener implements Listener {
 
+	private static final long CANT_ENTER_MESSAGE_INTERVAL = 2000;
 	private final LiftPlugin plugin = LiftPlugin.INSTANCE;
 	private final BukkitConfig config = BukkitConfig.INSTANCE;
 	private final Messages messages = Messages.INSTANCE;
 	private final Map<UUID, FloorSign> activeScrollSelects = new HashMap<>();
 	private final Map<UUID, Location> quitInElevator = new HashMap<>();
+	private final Map<UUID, Long> lastCantEnterMessages = new HashMap<>();
 
 	public PlayerListener() {
 		Bukkit.getServer().getPluginManager().registerEvents(this, plugin);
@@ -65,9 +72,9 @@ public class PlayerListener implements Listener {
 				player.sendMessage(messages.getScrollSelectDisabled());
 				return;
 			}
-			if (((Sign) block.getState()).getSide(BukkitFloorSign.DEFAULT_SIDE).getLine(0).isEmpty()) {
+			if (new BukkitFloorSign((Sign) block.getState()).isBlank()) {
 				plugin.logDebug("Performing elevator floor scan");
-				createElevator(block.getRelative(BlockFace.DOWN), player);
+				createElevator(block.getRelative(BlockFace.DOWN), player, ElevatorFactory::writeInvalidFloorSigns);
 				return;
 			}
 			selectNextFloor(block, player);
@@ -131,12 +138,19 @@ public class PlayerListener implements Listener {
 
 	@EventHandler
 	public void onPlayerMove(PlayerMoveEvent event) {
-		if (!config.getPreventEntry()) {
+		if (!config.getPreventEntry() || plugin.getActiveLifts().isEmpty()) {
+			return;
+		}
+		Location to = event.getTo();
+		if (to != null && isSameBlock(event.getFrom(), to)) {
 			return;
 		}
 		Player player = event.getPlayer();
-		boolean playerInShaft = plugin.getActiveLifts()
-				.stream()
+		Set<BukkitElevator> nearbyLifts = plugin.getActiveLiftsNear(player.getLocation());
+		if (nearbyLifts.isEmpty()) {
+			return;
+		}
+		boolean playerInShaft = nearbyLifts.stream()
 				.anyMatch(elevator -> !elevator.isOutsideShaft(player));
 		if (!playerInShaft) {
 			return;
@@ -145,8 +159,7 @@ public class PlayerListener implements Listener {
 		if (playerRidesLift) {
 			return;
 		}
-		player.sendMessage(messages.getCantEnter());
-		Location to = event.getTo();
+		sendCantEnter(player);
 		if (to == null) {
 			plugin.logWarn("Could not prevent lift entry for " + player.getName() + " at " + player.getLocation());
 			return;
@@ -157,31 +170,60 @@ public class PlayerListener implements Listener {
 		player.setVelocity(pushBack);
 	}
 
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onPlayerMoveBlock(PlayerMoveEvent event) {
+		Location to = event.getTo();
+		if (to == null || isSameBlock(event.getFrom(), to)) {
+			return;
+		}
+		ShaftOccupancy.INSTANCE.move(event.getPlayer(), event.getFrom(), to);
+	}
+
+	/**
+	 * Teleports have their own handler list, so move listeners don't see players that enter or leave a shaft by
+	 * ender pearl, chorus fruit or command
+	 */
+	@EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+	public void onPlayerTeleport(PlayerTeleportEvent event) {
+		Location to = event.getTo();
+		if (to == null || isSameBlock(event.getFrom(), to)) {
+			return;
+		}
+		ShaftOccupancy.INSTANCE.move(event.getPlayer(), event.getFrom(), to);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onJoin(PlayerJoinEvent event) {
+		Player player = event.getPlayer();
+		ShaftOccupancy.INSTANCE.move(player, null, player.getLocation());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onRespawn(PlayerRespawnEvent event) {
+		Player player = event.getPlayer();
+		ShaftOccupancy.INSTANCE.move(player, player.getLocation(), event.getRespawnLocation());
+	}
+
 	@EventHandler
 	public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
 		Player player = event.getPlayer();
 
-		boolean playerInNoLift = plugin.isInNoLift(player);
+		Optional<BukkitElevator> elevator = plugin.getUsingElevator(player);
 
-		if (playerInNoLift) {
+		if (elevator.isEmpty()) {
 			return;
 		}
 
+		// reset before leaving the elevator, so the ride state is still known
 		Entity vehicle = player.getVehicle();
-		plugin.getUsingElevators(player)
-				.forEach(elevator -> {
-					elevator.removePassengers(Collections.singletonList(player));
-					elevator.removeFreezers(Collections.singletonList(player));
-					if (vehicle != null) {
-						elevator.removePassengers(Collections.singletonList(vehicle));
-						elevator.removeFreezers(Collections.singletonList(vehicle));
-					}
-				});
-
 		ElevatorExecutor.resetEntityPhysics(player);
+		List<Entity> leaving = new ArrayList<>(Collections.singletonList(player));
 		if (vehicle != null) {
 			ElevatorExecutor.resetEntityPhysics(vehicle);
+			leaving.add(vehicle);
 		}
+		elevator.get().removePassengers(leaving);
+		elevator.get().removeFreezers(leaving);
 	}
 
 	/**
@@ -189,70 +231,89 @@ public class PlayerListener implements Listener {
 	 * won't fall down the shaft.
 	 */
 	private void handlePlayerQuit(Player player) {
-		if (plugin.isInNoLift(player)) {
+		lastCantEnterMessages.remove(player.getUniqueId());
+		ShaftOccupancy.INSTANCE.remove(player);
+		Optional<BukkitElevator> elevatorOpt = plugin.getUsingElevator(player);
+		if (elevatorOpt.isEmpty()) {
 			return;
 		}
-		List<BukkitElevator> elevators = plugin.getUsingElevators(player);
+		BukkitElevator elevator = elevatorOpt.get();
+		Location baseFloor = elevator.getCenter(elevator.getFloorByLevel(1));
+		quitInElevator.put(player.getUniqueId(), baseFloor);
+		getVehicleOfPlayer(player).ifPresent(vehicle -> quitInElevator.put(vehicle.getUniqueId(), baseFloor));
+		plugin.logDebug("Remember that " + player.getName() + " quit within an elevator.");
 
-		for (BukkitElevator elevator : elevators) {
-			Location baseFloor = elevator.getCenter(elevator.getFloorByLevel(1));
-			quitInElevator.put(player.getUniqueId(), baseFloor);
-			getVehicleOfPlayer(player).ifPresent(vehicle -> quitInElevator.put(vehicle.getUniqueId(), baseFloor));
-			plugin.logDebug("Remember that " + player.getName() + " quit within an elevator.");
+		// the ride state is dropped with the player, so flight rules have to be restored now
+		ElevatorExecutor.resetEntityPhysics(player);
+		elevator.removePassengers(Collections.singletonList(player));
+		elevator.removeFreezers(Collections.singletonList(player));
+	}
 
-			elevator.removePassengers(Collections.singletonList(player));
-			elevator.removeFreezers(Collections.singletonList(player));
+	/**
+	 * Move events are fired on every movement packet, so the message is sent only once in a while
+	 */
+	private void sendCantEnter(Player player) {
+		long now = System.currentTimeMillis();
+		Long lastSent = lastCantEnterMessages.get(player.getUniqueId());
+		if (lastSent != null && now - lastSent < CANT_ENTER_MESSAGE_INTERVAL) {
+			return;
 		}
+		lastCantEnterMessages.put(player.getUniqueId(), now);
+		player.sendMessage(messages.getCantEnter());
+	}
+
+	private static boolean isSameBlock(Location from, Location to) {
+		return from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() &&
+				from.getBlockZ() == to.getBlockZ() && Objects.equals(from.getWorld(), to.getWorld());
 	}
 
 	private void selectNextFloor(Block signBlock, Player player) {
 		Block button = signBlock.getRelative(BlockFace.DOWN);
-		Optional<BukkitElevator> elevatorOpt = createElevator(button, player);
-		if (elevatorOpt.isEmpty()) {
-			return;
-		}
-		BukkitElevator elevator = elevatorOpt.get();
-		Optional<Floor> currentFloorOpt = elevator.getFloorFromY(button.getY());
-		if (currentFloorOpt.isEmpty()) {
-			player.sendMessage(messages.getFloorNotExists());
-			return;
-		}
-		// select by scroll
-		if (config.getMouseScroll() && isEmptyHand(player)) {
-			elevator.getFloorFromY(button.getY())
-					.ifPresent(floor -> {
-						activeScrollSelects.put(player.getUniqueId(), elevator.getInitialSign());
-						player.sendMessage(messages.getScrollSelectEnabled());
-					});
-			return;
-		}
-		// select by click
-		setDestToNext(elevator.getInitialSign(), player, true);
+		createElevator(button, player, elevator -> {
+			Optional<Floor> currentFloorOpt = elevator.getFloorFromY(button.getY());
+			if (currentFloorOpt.isEmpty()) {
+				player.sendMessage(messages.getFloorNotExists());
+				return;
+			}
+			// select by scroll
+			if (config.getMouseScroll() && isEmptyHand(player)) {
+				activeScrollSelects.put(player.getUniqueId(), elevator.getInitialSign());
+				player.sendMessage(messages.getScrollSelectEnabled());
+				return;
+			}
+			// select by click
+			setDestToNext(elevator.getInitialSign(), player, true);
+		});
 	}
 
 	private void createAndRunElevator(Block buttonBlock, Player player) {
-		Optional<BukkitElevator> elevator = createElevator(buttonBlock, player);
-		if (elevator.isEmpty()) {
-			return;
-		}
-		try {
-			ElevatorExecutor.runElevator(elevator.get());
-		} catch (ElevatorUsageException e) {
-			catchElevatorUsageException(player, e);
-		} catch (ElevatorException e) {
-			handleElevatorException(player, e);
-		}
+		createElevator(buttonBlock, player, ElevatorExecutor::runElevator);
 	}
 
-	private Optional<BukkitElevator> createElevator(Block buttonBlock, Player player) {
-		try {
-			return ElevatorFactory.createElevator(buttonBlock);
-		} catch (ElevatorUsageException e) {
-			catchElevatorUsageException(player, e);
-		} catch (ElevatorException e) {
-			handleElevatorException(player, e);
-		}
-		return Optional.empty();
+	/**
+	 * Creates the elevator (possibly asynchronously) and passes it to 'onCreated' on the main thread
+	 */
+	private void createElevator(Block buttonBlock, Player player, Consumer<BukkitElevator> onCreated) {
+		long clickTime = System.nanoTime();
+		ElevatorFactory.createElevatorAsync(buttonBlock)
+				.whenComplete((elevator, throwable) -> {
+					try {
+						if (throwable != null) {
+							throw throwable instanceof CompletionException ? throwable.getCause() : throwable;
+						}
+						elevator.ifPresent(created -> {
+							created.setClickTime(clickTime);
+							created.setCaller(player);
+						});
+						elevator.ifPresent(onCreated);
+					} catch (ElevatorUsageException e) {
+						catchElevatorUsageException(player, e);
+					} catch (ElevatorException e) {
+						handleElevatorException(player, e);
+					} catch (Throwable e) {
+						handleElevatorException(player, new ElevatorCreateException(e));
+					}
+				});
 	}
 
 	private void setDestToNext(FloorSign floorSign, Player player, boolean isNextAbove) {
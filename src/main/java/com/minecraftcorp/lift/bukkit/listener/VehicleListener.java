@@ -1,14 +1,17 @@
 package com.minecraftcorp.lift.bukkit.listener;
 
 import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.service.ShaftOccupancy;
 import com.minecraftcorp.lift.common.model.Messages;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.vehicle.VehicleExitEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 
 public class VehicleListener implements Listener {
 
@@ -34,4 +37,22 @@ public class VehicleListener implements Listener {
 		event.setCancelled(true);
 		plugin.logDebug("Canceled ejection for " + ejector);
 	}
+
+	/**
+	 * Players in vehicles don't cause move events, so the shafts they are in are updated from their vehicle
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onVehicleMove(VehicleMoveEvent event) {
+		Location from = event.getFrom();
+		Location to = event.getTo();
+		if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() &&
+				from.getBlockZ() == to.getBlockZ()) {
+			return;
+		}
+		event.getVehicle()
+				.getPassengers()
+				.stream()
+				.filter(Player.class::isInstance)
+				.forEach(player -> ShaftOccupancy.INSTANCE.move((Player) player, from, to));
+	}
 }
@@ -8,17 +8,25 @@ import com.minecraftcorp.lift.common.model.Messages;
 import com.minecraftcorp.lift.common.util.ConfigUtils;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
-import java.util.function.BiPredicate;
-import java.util.stream.Stream;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
-import org.bukkit.block.Sign;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.HangingSign;
+import org.bukkit.block.data.type.WallHangingSign;
+import org.bukkit.block.data.type.WallSign;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -26,53 +34,102 @@ import org.bukkit.configuration.file.YamlConfiguration;
  * Note that fields that are configurable in config.yml should have the same name, so
  * {@link ConfigUtils#mapConfigurationToFields )} maps values correctly to fields of this class.
  * For that mapping, you should use boxed types instead of primitive types (Integer instead of int, ...)
+ * <p>
+ * config.yml is read into a separate snapshot instance, which may happen on another thread. The snapshot is applied
+ * to {@link #INSTANCE} on the main thread in one step, so rides never see a partially loaded config.
  */
 @Getter
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BukkitConfig extends Config {
 
+	// initialized before INSTANCE, as the material table of INSTANCE is sized by it
+	private static final Material[] MATERIALS = Material.values();
 	public static final BukkitConfig INSTANCE = new BukkitConfig();
+	private static final int FLOOR = 1;
+	private static final int BUTTON = 1 << 1;
+	private static final int SIGN = 1 << 2;
+	private static final int SHAFT = 1 << 3;
+	private static final int BASE = 1 << 4;
+	private static final int MUSIC = 1 << 5;
+	/**
+	 * Materials that don't interrupt a shaft: non-solid blocks and all materials above except base blocks
+	 */
+	private static final int PASSABLE = 1 << 6;
+	/**
+	 * Whether the block data of a material is a sign, indexed by {@link Material#ordinal()}. Computed once by the
+	 * first load, which happens on the main thread when the plugin is enabled.
+	 */
+	private static volatile boolean[] signBlockData;
 	private LiftPlugin plugin;
 
-	private final Map<Material, Double> blockSpeeds = new HashMap<>();
-	private final Set<Material> floorMaterials = new HashSet<>();
-	private final Set<Material> buttonMaterials = new HashSet<>();
-	private final Set<Material> signMaterials = new HashSet<>();
-	private final Set<Material> musicBlocks = new HashSet<>();
-	private final Set<Material> shaftBlocks = new HashSet<>();
+	@Getter(AccessLevel.NONE)
+	private volatile MaterialTable materials = new MaterialTable(new byte[MATERIALS.length],
+			new double[MATERIALS.length]);
 
 	private boolean useNoCheatPlus;
 	private boolean serverFlightAllowed;
 
 	public boolean isSign(Block block) {
-		return signMaterials.contains(block.getType()) && block.getState() instanceof Sign;
+		return isSign(block.getType());
+	}
+
+	public boolean isSign(Material material) {
+		return hasFlag(material, SIGN);
 	}
 
 	public boolean isButton(Block block) {
-		return buttonMaterials.contains(block.getType());
+		return isButton(block.getType());
+	}
+
+	public boolean isButton(Material material) {
+		return hasFlag(material, BUTTON);
 	}
 
 	public boolean isBaseBlock(Block block) {
-		return blockSpeeds.containsKey(block.getType());
+		return isBaseBlock(block.getType());
+	}
+
+	public boolean isBaseBlock(Material material) {
+		return hasFlag(material, BASE);
 	}
 
 	public boolean isFloorBlock(Block block) {
-		return floorMaterials.contains(block.getType());
+		return isFloorBlock(block.getType());
+	}
+
+	public boolean isFloorBlock(Material material) {
+		return hasFlag(material, FLOOR);
 	}
 
 	public double getBlockSpeed(Block block) {
-		if (blockSpeeds.containsKey(block.getType())) {
-			return blockSpeeds.get(block.getType());
+		double speed = materials.speeds[block.getType().ordinal()];
+		if (speed > 0) {
+			return speed;
 		}
 		throw new ElevatorException("Block speed not configured for " + block.getType());
 	}
 
 	public boolean isMusicEnabled(Block block) {
-		return plugin.isNoteBlockAPIEnabled() && musicBlocks.contains(block.getType());
+		return plugin.isNoteBlockAPIEnabled() && hasFlag(block.getType(), MUSIC);
 	}
 
 	public boolean isShaftBlock(Block block) {
-		return shaftBlocks.contains(block.getType());
+		return isShaftBlock(block.getType());
+	}
+
+	public boolean isShaftBlock(Material material) {
+		return hasFlag(material, SHAFT);
+	}
+
+	/**
+	 * Whether a block of this material can be part of a shaft without interrupting it
+	 */
+	public boolean isValidShaftBlock(Material material) {
+		return hasFlag(material, PASSABLE);
+	}
+
+	private boolean hasFlag(Material material, int flag) {
+		return (materials.flags[material.ordinal()] & flag) != 0;
 	}
 
 	public boolean isValidLiftStructureFromButton(Block buttonBlock) {
@@ -81,9 +138,63 @@ public class BukkitConfig extends Config {
 				(isFloorBlock(floorBlock) || isBaseBlock(floorBlock));
 	}
 
+	/**
+	 * Load config.yml synchronously, e.g. when the plugin gets enabled
+	 */
 	public void loadConfig(LiftPlugin plugin) {
-		this.plugin = plugin;
-		clear();
+		apply(read(plugin));
+	}
+
+	/**
+	 * Read config.yml on a worker thread and apply it on the main thread
+	 *
+	 * @return a future that completes on the main thread after the config has been applied
+	 */
+	public CompletableFuture<Void> loadConfigAsync(LiftPlugin plugin) {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+			try {
+				Snapshot snapshot = read(plugin);
+				Bukkit.getScheduler().runTask(plugin, () -> {
+					try {
+						apply(snapshot);
+						future.complete(null);
+					} catch (Exception e) {
+						future.completeExceptionally(e);
+					}
+				});
+			} catch (Exception e) {
+				Bukkit.getScheduler().runTask(plugin, () -> future.completeExceptionally(e));
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Replace all values of this config and of {@link Messages#INSTANCE} with those of 'snapshot'
+	 */
+	private void apply(Snapshot snapshot) {
+		BukkitConfig loaded = snapshot.config;
+		ConfigUtils.copyFields(loaded, this, Config.class);
+		ConfigUtils.copyFields(snapshot.messages, Messages.INSTANCE, Messages.class);
+		plugin = loaded.plugin;
+		materials = loaded.materials;
+
+		serverFlightAllowed = plugin.getServer()
+				.getAllowFlight();
+		useNoCheatPlus = plugin.getServer()
+				.getPluginManager()
+				.getPlugin("NoCheatPlus") != null;
+		if (useNoCheatPlus) {
+			plugin.logDebug("Hooked into NoCheatPlus");
+		}
+	}
+
+	/**
+	 * Read config.yml into a new snapshot without changing this config. Loads are serialized, as they share the
+	 * config files.
+	 */
+	private static synchronized Snapshot read(LiftPlugin plugin) {
 		File configFile = new File(plugin.getDataFolder(), File.separator + "config.yml");
 		File defaultConfigFile = new File(plugin.getDataFolder(),
 				File.separator + "default" + File.separator + "config.yml");
@@ -103,44 +214,56 @@ public class BukkitConfig extends Config {
 
 		ConfigUtils.migrateConfig(plugin, config);
 
-		mapConfiguration(config, this, Config.class);
-		mapConfiguration(config.getConfigurationSection("messages"), Messages.INSTANCE, Messages.class);
+		BukkitConfig snapshot = new BukkitConfig();
+		snapshot.plugin = plugin;
+		Messages messages = new Messages();
+		snapshot.mapConfiguration(config, snapshot, Config.class);
+		snapshot.mapConfiguration(config.getConfigurationSection("messages"), messages, Messages.class);
+
+		byte[] flags = new byte[MATERIALS.length];
+		double[] speeds = new double[MATERIALS.length];
+		snapshot.parseBaseBlocks(config, flags, speeds);
+		plugin.logDebug("Base blocks: " + getMaterials(flags, BASE));
+		plugin.logDebug("Music blocks: " + getMaterials(flags, MUSIC));
 
-		parseBaseBlocks(config);
-		plugin.logDebug("Block speeds: " + blockSpeeds);
-		plugin.logDebug("Music blocks: " + musicBlocks);
+		fillMaterialFromConfig(config, "floorBlocks", flags, FLOOR);
+		plugin.logDebug("Floor materials added: " + getMaterials(flags, FLOOR));
 
-		fillMaterialFromConfig(config, "floorBlocks", floorMaterials);
-		plugin.logDebug("Floor materials added: " + floorMaterials);
+		fillMaterialFromConfig(config, "buttonBlocks", flags, BUTTON);
+		plugin.logDebug("Button materials added: " + getMaterials(flags, BUTTON));
 
-		fillMaterialFromConfig(config, "buttonBlocks", buttonMaterials);
-		plugin.logDebug("Button materials added: " + buttonMaterials);
+		fillMaterialFromConfig(config, "signBlocks", flags, SIGN);
+		removeNonSignMaterials(flags);
+		plugin.logDebug("Sign materials added: " + getMaterials(flags, SIGN));
 
-		fillMaterialFromConfig(config, "signBlocks", signMaterials);
-		plugin.logDebug("Sign materials added: " + signMaterials);
+		fillMaterialFromConfig(config, "shaftBlocks", flags, SHAFT);
+		plugin.logDebug("Allowed shaft blocks added: " + getMaterials(flags, SHAFT));
 
-		fillMaterialFromConfig(config, "shaftBlocks", shaftBlocks);
-		plugin.logDebug("Allowed shaft blocks added: " + shaftBlocks);
+		addPassableFlags(flags);
+		snapshot.materials = new MaterialTable(flags, speeds);
 
 		try {
-			validate();
-			config.save(configFile);
+			snapshot.validate();
+			save(config, configFile);
 		} catch (IOException | ConfigurationException e) {
 			throw new ConfigurationException("Could not save config to " + configFile, e);
 		}
+		return new Snapshot(snapshot, messages);
+	}
 
-		serverFlightAllowed = plugin.getServer()
-				.getAllowFlight();
-
-		if (plugin.getServer()
-				.getPluginManager()
-				.getPlugin("NoCheatPlus") != null) {
-			useNoCheatPlus = true;
-			plugin.logDebug("Hooked into NoCheatPlus");
+	/**
+	 * Only write config.yml if it changed, e.g. by added default values, so that watching the file doesn't cause
+	 * endless reloads
+	 */
+	private static void save(YamlConfiguration config, File configFile) throws IOException {
+		String content = config.saveToString();
+		if (configFile.exists() && content.equals(Files.readString(configFile.toPath(), StandardCharsets.UTF_8))) {
+			return;
 		}
+		config.save(configFile);
 	}
 
-	private void parseBaseBlocks(YamlConfiguration config) {
+	private void parseBaseBlocks(YamlConfiguration config, byte[] flags, double[] speeds) {
 		List<Map<?, ?>> baseBlocks = config.getMapList("baseBlocks");
 		for (Map<?, ?> baseBlock : baseBlocks) {
 			String type;
@@ -153,19 +276,20 @@ public class BukkitConfig extends Config {
 						"('" + baseBlock.get("type") + "') and baseBlocks[].speed ('" + baseBlock.get("speed") + "')", e);
 			}
 			Material material = Material.valueOf(type);
-			if (blockSpeeds.containsKey(material)) {
+			if ((flags[material.ordinal()] & BASE) != 0) {
 				throw new ConfigurationException("Invalid duplicated baseBlocks configuration for '" + material + "'");
 			}
 			if (speed <= 0) {
 				plugin.logWarn("Base block '" + type + "' needs a speed > 0 in baseBlocks[].speed");
 				continue;
 			}
-			blockSpeeds.put(material, speed);
+			flags[material.ordinal()] |= BASE;
+			speeds[material.ordinal()] = speed;
 
 			if (baseBlock.containsKey("music")) {
 				try {
 					if ((boolean) baseBlock.get("music")) {
-						musicBlocks.add(material);
+						flags[material.ordinal()] |= MUSIC;
 					}
 				} catch (ClassCastException e) {
 					throw new ConfigurationException("Invalid configuration for baseBlocks[].music " +
@@ -175,10 +299,51 @@ public class BukkitConfig extends Config {
 		}
 	}
 
-	private void clear() {
-		blockSpeeds.clear();
-		Stream.of(floorMaterials, buttonMaterials, signMaterials, musicBlocks, shaftBlocks)
-				.forEach(Collection::clear);
+	/**
+	 * Only keep sign materials whose block data is a sign, so that blocks don't need to be checked for their state
+	 */
+	private static void removeNonSignMaterials(byte[] flags) {
+		boolean[] signs = getSignBlockData();
+		for (Material material : MATERIALS) {
+			if ((flags[material.ordinal()] & SIGN) != 0 && !signs[material.ordinal()]) {
+				flags[material.ordinal()] &= ~SIGN;
+			}
+		}
+	}
+
+	private static boolean[] getSignBlockData() {
+		if (signBlockData == null) {
+			boolean[] signs = new boolean[MATERIALS.length];
+			for (Material material : MATERIALS) {
+				signs[material.ordinal()] = isSignBlockData(material);
+			}
+			signBlockData = signs;
+		}
+		return signBlockData;
+	}
+
+	private static boolean isSignBlockData(Material material) {
+		if (!material.isBlock() || material.isLegacy()) {
+			return false;
+		}
+		BlockData blockData = material.createBlockData();
+		return blockData instanceof WallSign || blockData instanceof org.bukkit.block.data.type.Sign
+				|| blockData instanceof WallHangingSign || blockData instanceof HangingSign;
+	}
+
+	private static void addPassableFlags(byte[] flags) {
+		for (Material material : MATERIALS) {
+			int ordinal = material.ordinal();
+			if (!material.isSolid() || (flags[ordinal] & (FLOOR | BUTTON | SIGN | SHAFT)) != 0) {
+				flags[ordinal] |= PASSABLE;
+			}
+		}
+	}
+
+	private static List<Material> getMaterials(byte[] flags, int flag) {
+		return Arrays.stream(MATERIALS)
+				.filter(material -> (flags[material.ordinal()] & flag) != 0)
+				.toList();
 	}
 
 	private void mapConfiguration(ConfigurationSection section, Object object, Class<?> clazz) {
@@ -194,44 +359,83 @@ public class BukkitConfig extends Config {
 	protected void validate() {
 		super.validate();
 		List<String> emptySets = new ArrayList<>();
-		if (blockSpeeds.isEmpty()) {
+		if (!hasAnyMaterial(BASE)) {
 			emptySets.add("blockSpeeds");
 		}
-		if (floorMaterials.isEmpty()) {
+		if (!hasAnyMaterial(FLOOR)) {
 			emptySets.add("floorMaterials");
 		}
-		if (signMaterials.isEmpty()) {
+		if (!hasAnyMaterial(SIGN)) {
 			emptySets.add("signMaterials");
 		}
-		if (buttonMaterials.isEmpty()) {
+		if (!hasAnyMaterial(BUTTON)) {
 			emptySets.add("buttonMaterials");
 		}
 		if (!emptySets.isEmpty()) {
 			plugin.logWarn(String.join(", ", emptySets) + " is empty in config.yml. " +
 					"No Lift will work");
 		}
-		if (!musicBlocks.isEmpty() && !plugin.isNoteBlockAPIEnabled()) {
+		if (hasAnyMaterial(MUSIC) && !plugin.isNoteBlockAPIEnabled()) {
 			plugin.logWarn("You have configured base blocks with music but NoteBlockAPI is not installed. " +
 					"Music won't work");
 		}
 	}
 
-	private void fillMaterialFromConfig(YamlConfiguration config, String configKey, Set<Material> materialSet) {
-		List<String> configShaftMaterials = config.getStringList(configKey);
-		Arrays.stream(Material.values())
-				.filter(mat -> anyMaterialMatch().test(configShaftMaterials, mat))
-				.forEach(materialSet::add);
+	/**
+	 * Changes whenever the config changes in a way that affects the result of shaft scans. Block speeds don't affect
+	 * scans, as they are looked up at the start of each ride.
+	 */
+	public int getScanFingerprint() {
+		return Objects.hash(Arrays.hashCode(materials.flags), maxLiftArea, minHeight, maxHeight);
+	}
+
+	private boolean hasAnyMaterial(int flag) {
+		return !getMaterials(materials.flags, flag).isEmpty();
+	}
+
+	private static void fillMaterialFromConfig(YamlConfiguration config, String configKey, byte[] flags, int flag) {
+		List<String> patterns = config.getStringList(configKey);
+		if (patterns.isEmpty()) {
+			return;
+		}
+		Pattern pattern = compileMaterialPatterns(patterns);
+		for (Material material : MATERIALS) {
+			if (pattern.matcher(material.name()).matches()) {
+				flags[material.ordinal()] |= flag;
+			}
+		}
 	}
 
-	private static BiPredicate<List<String>, Material> anyMaterialMatch() {
-		return (list, mat) -> list.stream()
-				.anyMatch(configMat -> mat.name()
-						.matches(configMat.toUpperCase()
-								.replace("*", ".*?")));
+	/**
+	 * Compile material patterns into one pattern. Each of them is a regular expression, in which '*' matches any
+	 * characters.
+	 */
+	private static Pattern compileMaterialPatterns(List<String> patterns) {
+		return Pattern.compile(patterns.stream()
+				.map(pattern -> "(?:" + pattern.toUpperCase(Locale.ROOT)
+						.replace("*", ".*?") + ")")
+				.collect(Collectors.joining("|")));
 	}
 
 	private static YamlConfiguration getDefaultConfig(LiftPlugin plugin, File defaultConfigFile) {
 		copyDefaultConfig(plugin, defaultConfigFile);
 		return YamlConfiguration.loadConfiguration(defaultConfigFile);
 	}
+
+	/**
+	 * Flags and speeds of each material, indexed by {@link Material#ordinal()}. Replaced as a whole on reload.
+	 */
+	@RequiredArgsConstructor
+	private static class MaterialTable {
+
+		private final byte[] flags;
+		private final double[] speeds;
+	}
+
+	@RequiredArgsConstructor
+	private static class Snapshot {
+
+		private final BukkitConfig config;
+		private final Messages messages;
+	}
 }
@@ -1,7 +1,6 @@
 package com.minecraftcorp.lift.bukkit.model;
 
-import static com.minecraftcorp.lift.common.util.Calculator.compareBlockCoords;
-
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
 import com.minecraftcorp.lift.common.exception.ElevatorException;
 import com.minecraftcorp.lift.common.exception.ElevatorRunException;
 import com.minecraftcorp.lift.common.model.Elevator;
@@ -9,11 +8,13 @@ import com.minecraftcorp.lift.common.model.Floor;
 import java.util.*;
 import java.util.stream.Stream;
 import lombok.Getter;
+import lombok.Setter;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
 import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Vector;
 
@@ -21,47 +22,151 @@ import org.bukkit.util.Vector;
 public class BukkitElevator extends Elevator {
 
 	private static final double DEFAULT_SPEED = 0.5;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
 	private final BukkitConfig config = BukkitConfig.INSTANCE;
+	private final Shaft shaft;
 	private final Set<Block> baseBlocks;
 	private final Set<Entity> passengers = new HashSet<>();
 	private final Set<Entity> freezers = new HashSet<>();
-	private final Set<BlockState> blockCache = new HashSet<>();
+	/**
+	 * Destination of each passenger, also while it waits at a stop of the ride
+	 */
+	private final Map<Entity, Floor> destinations = new HashMap<>();
+	/**
+	 * Blocks that are removed for the ride, in order of removal
+	 */
+	private final List<Block> removedBlocks = new ArrayList<>();
+	/**
+	 * Floors whose blocks are currently removed
+	 */
+	private final Set<Floor> removedFloors = new HashSet<>();
+	private final Map<Block, BlockState> blockCache = new HashMap<>();
 	private BoundingBox shaftArea;
-
-	public BukkitElevator(Set<Block> baseBlocks, Floor startFloor, List<Floor> floors, BukkitFloorSign initialSign) {
-		super(floors, startFloor, baseBlocks.stream()
+	/**
+	 * {@link System#nanoTime()} of the click that created this elevator, or 0 if unknown
+	 */
+	@Setter
+	private long clickTime;
+	/**
+	 * Player that clicked the button that created this elevator, or null if unknown
+	 */
+	@Setter
+	private Player caller;
+
+	public BukkitElevator(Shaft shaft, Floor startFloor, List<Floor> floors, BukkitFloorSign initialSign) {
+		super(floors, startFloor, shaft.getBaseBlocks()
+				.stream()
 				.map(BukkitConfig.INSTANCE::getBlockSpeed)
 				.findAny()
 				.orElse(DEFAULT_SPEED), initialSign);
-		this.baseBlocks = baseBlocks;
+		this.shaft = shaft;
+		this.baseBlocks = shaft.getBaseBlocks();
 	}
 
-	public void addPassengers(Collection<Entity> passengers) {
+	/**
+	 * Let entities ride to 'destination'. Entities that were held in place become passengers.
+	 */
+	public void addPassengers(Collection<Entity> passengers, Floor destination) {
+		passengers.forEach(passenger -> {
+			plugin.addRider(passenger, this);
+			destinations.put(passenger, destination);
+		});
 		this.passengers.addAll(passengers);
+		freezers.removeAll(passengers);
 	}
 
+	/**
+	 * Passengers that are held in place are still riders of the elevator. All other passengers leave it.
+	 */
 	public void removePassengers(Collection<Entity> passengers) {
 		this.passengers.removeAll(passengers);
+		passengers.stream()
+				.filter(passenger -> !freezers.contains(passenger))
+				.forEach(passenger -> {
+					destinations.remove(passenger);
+					plugin.removeRider(passenger, this);
+				});
+	}
+
+	/**
+	 * Passengers that wait at a stop continue their ride
+	 */
+	public void resumeRiders() {
+		passengers.addAll(destinations.keySet());
+		freezers.removeAll(destinations.keySet());
+	}
+
+	/**
+	 * @return passengers whose destination is 'floor'
+	 */
+	public List<Entity> getRidersTo(Floor floor) {
+		return destinations.entrySet()
+				.stream()
+				.filter(entry -> entry.getValue() == floor)
+				.map(Map.Entry::getKey)
+				.toList();
+	}
+
+	public boolean isRider(Entity entity) {
+		return destinations.containsKey(entity);
 	}
 
 	public void clearPassengers() {
-		passengers.clear();
+		removePassengers(new ArrayList<>(passengers));
 	}
 
 	public void addFreezers(Collection<Entity> freezers) {
+		freezers.forEach(freezer -> plugin.addRider(freezer, this));
 		this.freezers.addAll(freezers);
 	}
 
 	public void removeFreezers(List<Entity> freezers) {
 		freezers.forEach(this.freezers::remove);
+		freezers.stream()
+				.filter(freezer -> !passengers.contains(freezer))
+				.forEach(freezer -> {
+					destinations.remove(freezer);
+					plugin.removeRider(freezer, this);
+				});
 	}
 
 	public Stream<Entity> getInvolvedEntities() {
 		return Stream.concat(passengers.stream(), freezers.stream());
 	}
 
+	public void addRemovedBlock(Block block) {
+		removedBlocks.add(block);
+	}
+
+	/**
+	 * @return false if the blocks of the floor are already removed
+	 */
+	public boolean addRemovedFloor(Floor floor) {
+		return removedFloors.add(floor);
+	}
+
+	/**
+	 * Forget the removed blocks of a floor, as they are restored before the end of the ride
+	 *
+	 * @return removed blocks of the floor and the shaft blocks above them
+	 */
+	public List<Block> takeRemovedBlocks(Floor floor) {
+		if (!removedFloors.remove(floor)) {
+			return Collections.emptyList();
+		}
+		List<Block> blocks = removedBlocks.stream()
+				.filter(block -> block.getY() == floor.getFloorY() || block.getY() == floor.getFloorY() + 1)
+				.toList();
+		removedBlocks.removeAll(blocks);
+		return blocks;
+	}
+
 	public void saveBlock(BlockState blockState) {
-		blockCache.add(blockState);
+		blockCache.put(blockState.getBlock(), blockState);
+	}
+
+	public BlockState getSavedBlock(Block block) {
+		return blockCache.get(block);
 	}
 
 	public World getWorld() {
@@ -77,31 +182,31 @@ public class BukkitElevator extends Elevator {
 				.map(Floor::getButtonY)
 				.orElse(config.getMaxHeight()) + 1;
 
-		Optional<Location> minBlock = baseBlocks.stream()
-				.min((b1, b2) -> compareBlockCoords(b1.getX(), b1.getZ(), b2.getX(), b2.getZ()))
-				.map(Block::getLocation);
-		Optional<Location> maxBlock = baseBlocks.stream()
-				.max((b1, b2) -> compareBlockCoords(b1.getX(), b1.getZ(), b2.getX(), b2.getZ()))
-				.map(Block::getLocation);
-		if (minBlock.isEmpty() || maxBlock.isEmpty()) {
+		Footprint footprint = shaft.getFootprint();
+		if (footprint.size() == 0) {
 			throw new ElevatorRunException("Could not find corner base blocks");
 		}
-		Location bottomCorner = minBlock.get();
-		Location topCorner = maxBlock.get().clone();
-		topCorner.setX(topCorner.getX() + 1);
-		topCorner.setY(maxY);
-		topCorner.setZ(topCorner.getZ() + 1);
-		shaftArea = BoundingBox.of(bottomCorner, topCorner);
+		shaftArea = new BoundingBox(footprint.getMinX(), shaft.getMinY(), footprint.getMinZ(),
+				footprint.getMaxX() + 1, maxY, footprint.getMaxZ() + 1);
 		return shaftArea;
 	}
 
+	/**
+	 * @return center of the shaft at the planned height of the passengers' feet at 'tick'
+	 */
+	public Location getCarLocation(long tick) {
+		Vector shaftCenter = getShaftArea().getCenter();
+		return new Location(getWorld(), shaftCenter.getX(), getTrajectory().getExpectedY(tick), shaftCenter.getZ());
+	}
+
 	public Location getCenter(Floor floor) {
 		Vector shaftCenter = getShaftArea().getCenter();
 		return new Location(getWorld(), shaftCenter.getX(), floor.getFloorY() + 1.5, shaftCenter.getZ());
 	}
 
 	public boolean isOutsideShaft(Entity entity) {
-		return !getShaftArea().overlaps(entity.getBoundingBox());
+		BoundingBox entityBox = entity.getBoundingBox();
+		return !getShaftArea().overlaps(entityBox) || !shaft.getFootprint().overlaps(entityBox);
 	}
 
 	public Block getBase() {
@@ -0,0 +1,51 @@
+package com.minecraftcorp.lift.bukkit.model;
+
+import com.minecraftcorp.lift.common.model.Floor;
+import com.minecraftcorp.lift.common.model.FloorSign;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.Sign;
+
+@Getter
+public class BukkitFloor extends Floor {
+
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private final List<Block> buttonBlocks;
+
+	/**
+	 * @param buttonBlocks buttons of the floor, each with a floor sign above
+	 */
+	public BukkitFloor(int level, List<Block> buttonBlocks) {
+		super(level, buttonBlocks.get(0).getY());
+		this.buttonBlocks = buttonBlocks;
+	}
+
+	@Override
+	protected List<FloorSign> loadSigns() {
+		return buttonBlocks.stream()
+				.map(button -> button.getRelative(BlockFace.UP))
+				.map(Block::getState)
+				.map(Sign.class::cast)
+				.map(BukkitFloorSign::new)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * The name is taken from a sign below a button, or from the floor sign, if there is none
+	 */
+	@Override
+	protected String loadName() {
+		return buttonBlocks.stream()
+				.map(block -> block.getRelative(BlockFace.DOWN))
+				.filter(config::isSign)
+				.map(Block::getState)
+				.map(Sign.class::cast)
+				.map(sign -> sign.getSide(BukkitFloorSign.DEFAULT_SIDE))
+				.map(sign -> sign.getLine(1))
+				.findFirst()
+				.orElseGet(() -> getSigns().get(0).readCurrentName());
+	}
+}
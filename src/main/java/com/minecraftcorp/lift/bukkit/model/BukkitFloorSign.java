@@ -1,15 +1,19 @@
 package com.minecraftcorp.lift.bukkit.model;
 
-import com.minecraftcorp.lift.common.exception.ElevatorChangeException;
+import com.minecraftcorp.lift.bukkit.service.SignUpdateQueue;
 import com.minecraftcorp.lift.common.exception.ElevatorException;
 import com.minecraftcorp.lift.common.model.Floor;
 import com.minecraftcorp.lift.common.model.FloorSign;
+import java.util.Optional;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.bukkit.block.Sign;
 import org.bukkit.block.sign.Side;
-import org.bukkit.block.sign.SignSide;
 
+/**
+ * Floor data is read from the {@link FloorSignData} of the sign. The text is only parsed for signs that were written
+ * before the data was stored, until they are rewritten.
+ */
 @Getter
 @RequiredArgsConstructor
 public class BukkitFloorSign extends FloorSign {
@@ -17,31 +21,40 @@ public class BukkitFloorSign extends FloorSign {
 	public static final Side DEFAULT_SIDE = Side.FRONT;
 	private final Sign sign;
 
+	/**
+	 * The text is written to the world at the end of the tick by the {@link SignUpdateQueue}
+	 */
 	@Override
 	public void updateSign(Floor current, Floor dest) {
-		SignSide side = sign.getSide(DEFAULT_SIDE);
-		side.setLine(LINE_CURRENT_LEVEL, getLineText(current, dest, LINE_CURRENT_LEVEL));
-		side.setLine(LINE_CURRENT_NAME, getLineText(current, dest, LINE_CURRENT_NAME));
-		side.setLine(LINE_DEST_LEVEL, getLineText(current, dest, LINE_DEST_LEVEL));
-		side.setLine(LINE_DEST_NAME, getLineText(current, dest, LINE_DEST_NAME));
-		if(!sign.update()) {
-			throw new ElevatorChangeException("Could not update sign of elevator floor");
-		}
+		String[] lines = new String[4];
+		lines[LINE_CURRENT_LEVEL] = getLineText(current, dest, LINE_CURRENT_LEVEL);
+		lines[LINE_CURRENT_NAME] = getLineText(current, dest, LINE_CURRENT_NAME);
+		lines[LINE_DEST_LEVEL] = getLineText(current, dest, LINE_DEST_LEVEL);
+		lines[LINE_DEST_NAME] = getLineText(current, dest, LINE_DEST_NAME);
+		SignUpdateQueue.INSTANCE.write(sign, DEFAULT_SIDE, lines, new FloorSignData(current, dest));
 	}
 
 	@Override
-	public boolean isValid() {
-		try {
-			return !sign.getSide(DEFAULT_SIDE)
-					.getLine(LINE_CURRENT_LEVEL)
-					.isEmpty() && readDestLevel() >= 0;
-		} catch (Exception e) {
-			return false;
-		}
+	public boolean isValid(Floor current) {
+		return readData().filter(data -> data.isUpToDate(current))
+				.isPresent();
+	}
+
+	/**
+	 * @return true if the sign has neither floor data nor text, so that the floors have not been scanned yet
+	 */
+	public boolean isBlank() {
+		return readData().isEmpty() && sign.getSide(DEFAULT_SIDE)
+				.getLine(LINE_CURRENT_LEVEL)
+				.isEmpty();
 	}
 
 	@Override
 	public int readDestLevel() {
+		Optional<FloorSignData> data = readData();
+		if (data.isPresent()) {
+			return data.get().getDestLevel();
+		}
 		String line = sign.getSide(DEFAULT_SIDE)
 				.getLine(LINE_DEST_LEVEL);
 		if (!line.contains(SEPARATOR)) {
@@ -56,7 +69,12 @@ public class BukkitFloorSign extends FloorSign {
 
 	@Override
 	public String readCurrentName() {
-		return sign.getSide(DEFAULT_SIDE)
-				.getLine(LINE_CURRENT_NAME);
+		return readData().map(FloorSignData::getCurrentName)
+				.orElseGet(() -> sign.getSide(DEFAULT_SIDE)
+						.getLine(LINE_CURRENT_NAME));
+	}
+
+	private Optional<FloorSignData> readData() {
+		return FloorSignData.read(sign);
 	}
 }
@@ -0,0 +1,75 @@
+package com.minecraftcorp.lift.bukkit.model;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.common.model.Floor;
+import java.util.Optional;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.NamespacedKey;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataHolder;
+import org.bukkit.persistence.PersistentDataType;
+
+/**
+ * Floor data of a lift sign, stored as typed values in its {@link PersistentDataContainer}. The sign text only
+ * renders this data.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class FloorSignData {
+
+	/**
+	 * Increase when the meaning of the stored values changes. Signs with another version are rewritten.
+	 */
+	public static final int MODEL_VERSION = 1;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final NamespacedKey KEY_VERSION = new NamespacedKey(plugin, "model_version");
+	private static final NamespacedKey KEY_CURRENT_LEVEL = new NamespacedKey(plugin, "current_level");
+	private static final NamespacedKey KEY_CURRENT_NAME = new NamespacedKey(plugin, "current_name");
+	private static final NamespacedKey KEY_DEST_LEVEL = new NamespacedKey(plugin, "dest_level");
+
+	private final int version;
+	private final int currentLevel;
+	private final String currentName;
+	private final int destLevel;
+
+	public FloorSignData(Floor current, Floor dest) {
+		this(MODEL_VERSION, current.getLevel(), current.getName(), dest.getLevel());
+	}
+
+	/**
+	 * @return empty if the holder was never written by the plugin
+	 */
+	public static Optional<FloorSignData> read(PersistentDataHolder holder) {
+		PersistentDataContainer container = holder.getPersistentDataContainer();
+		Integer version = container.get(KEY_VERSION, PersistentDataType.INTEGER);
+		Integer currentLevel = container.get(KEY_CURRENT_LEVEL, PersistentDataType.INTEGER);
+		Integer destLevel = container.get(KEY_DEST_LEVEL, PersistentDataType.INTEGER);
+		if (version == null || currentLevel == null || destLevel == null) {
+			return Optional.empty();
+		}
+		String currentName = container.getOrDefault(KEY_CURRENT_NAME, PersistentDataType.STRING, "");
+		return Optional.of(new FloorSignData(version, currentLevel, currentName, destLevel));
+	}
+
+	/**
+	 * Write to the holder. For block states, the data is saved with the next update of the state.
+	 */
+	public void write(PersistentDataHolder holder) {
+		PersistentDataContainer container = holder.getPersistentDataContainer();
+		container.set(KEY_VERSION, PersistentDataType.INTEGER, version);
+		container.set(KEY_CURRENT_LEVEL, PersistentDataType.INTEGER, currentLevel);
+		container.set(KEY_CURRENT_NAME, PersistentDataType.STRING, currentName);
+		container.set(KEY_DEST_LEVEL, PersistentDataType.INTEGER, destLevel);
+	}
+
+	/**
+	 * @return whether this data was written for the floor in its current shape
+	 */
+	public boolean isUpToDate(Floor current) {
+		return version == MODEL_VERSION && currentLevel == current.getLevel() && destLevel > 0 &&
+				currentName.equals(current.getName());
+	}
+}
@@ -0,0 +1,63 @@
+package com.minecraftcorp.lift.bukkit.model;
+
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.util.Arrays;
+import java.util.Collection;
+import lombok.Getter;
+import org.bukkit.block.Block;
+import org.bukkit.util.BoundingBox;
+
+/**
+ * Horizontal area of a shaft, stored as sorted packed column coordinates (see {@link Calculator#toColumnKey})
+ */
+@Getter
+public class Footprint {
+
+	private final long[] columns;
+	private final int minX;
+	private final int maxX;
+	private final int minZ;
+	private final int maxZ;
+
+	public Footprint(Collection<Block> blocks) {
+		columns = blocks.stream()
+				.mapToLong(block -> Calculator.toColumnKey(block.getX(), block.getZ()))
+				.sorted()
+				.distinct()
+				.toArray();
+		minX = blocks.stream().mapToInt(Block::getX).min().orElse(0);
+		maxX = blocks.stream().mapToInt(Block::getX).max().orElse(-1);
+		minZ = blocks.stream().mapToInt(Block::getZ).min().orElse(0);
+		maxZ = blocks.stream().mapToInt(Block::getZ).max().orElse(-1);
+	}
+
+	public int size() {
+		return columns.length;
+	}
+
+	public boolean contains(int x, int z) {
+		if (x < minX || x > maxX || z < minZ || z > maxZ) {
+			return false;
+		}
+		return Arrays.binarySearch(columns, Calculator.toColumnKey(x, z)) >= 0;
+	}
+
+	/**
+	 * Whether the box overlaps any column of this footprint. Like {@link BoundingBox#overlaps}, touching boxes
+	 * don't overlap.
+	 */
+	public boolean overlaps(BoundingBox box) {
+		int fromX = Math.max(minX, (int) Math.floor(box.getMinX()));
+		int toX = Math.min(maxX, (int) Math.ceil(box.getMaxX()) - 1);
+		int fromZ = Math.max(minZ, (int) Math.floor(box.getMinZ()));
+		int toZ = Math.min(maxZ, (int) Math.ceil(box.getMaxZ()) - 1);
+		for (int x = fromX; x <= toX; x++) {
+			for (int z = fromZ; z <= toZ; z++) {
+				if (contains(x, z)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
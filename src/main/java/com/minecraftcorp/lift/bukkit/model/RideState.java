@@ -0,0 +1,20 @@
+package com.minecraftcorp.lift.bukkit.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * State of an entity that is passenger or freezer of an active lift
+ */
+@Getter
+@RequiredArgsConstructor
+public class RideState {
+
+	private final BukkitElevator elevator;
+	/**
+	 * Flight permission of a player before the ride, or null if it was not modified
+	 */
+	@Setter
+	private Boolean allowFlight;
+}
@@ -0,0 +1,114 @@
+package com.minecraftcorp.lift.bukkit.model;
+
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.util.*;
+import lombok.Getter;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+
+/**
+ * Scanned structure of an elevator shaft: its base blocks and the button blocks of every floor.
+ * Unlike {@link BukkitElevator}, a shaft holds no ride state and can be reused for several rides.
+ */
+@Getter
+public class Shaft {
+
+	public static final List<BlockFace> NEIGHBOR_FACES = Arrays.asList(BlockFace.NORTH, BlockFace.EAST,
+			BlockFace.SOUTH, BlockFace.WEST);
+	private final World world;
+	private final Set<Block> baseBlocks;
+	private final List<List<Block>> floorButtons;
+	/**
+	 * Y of the base blocks
+	 */
+	private final int minY;
+	/**
+	 * Y of the block that ended the floor scan
+	 */
+	private final int maxY;
+	private final Footprint footprint;
+	/**
+	 * World and lowest corner, to identify the shaft in statistics
+	 */
+	private final String label;
+
+	public Shaft(Set<Block> baseBlocks, List<List<Block>> floorButtons, int maxY) {
+		Block base = baseBlocks.iterator().next();
+		this.world = base.getWorld();
+		this.baseBlocks = baseBlocks;
+		this.floorButtons = floorButtons;
+		this.minY = base.getY();
+		this.maxY = maxY;
+		this.footprint = new Footprint(baseBlocks);
+		this.label = world.getName() + " " + footprint.getMinX() + " " + minY + " " + footprint.getMinZ();
+	}
+
+	public boolean isInColumns(int x, int z) {
+		return footprint.contains(x, z);
+	}
+
+	public boolean contains(int x, int y, int z) {
+		return y >= minY && y <= maxY && isInColumns(x, z);
+	}
+
+	/**
+	 * A shaft is affected by any block within its columns and by blocks next to its base, because those might
+	 * extend the base area.
+	 */
+	public boolean isAffectedBy(Block block) {
+		int x = block.getX();
+		int z = block.getZ();
+		if (contains(x, block.getY(), z)) {
+			return true;
+		}
+		return block.getY() == minY && NEIGHBOR_FACES.stream()
+				.anyMatch(face -> isInColumns(x + face.getModX(), z + face.getModZ()));
+	}
+
+	/**
+	 * Hash of the positions and types of the base and button blocks and of the blocks at the height of each floor,
+	 * read from the world. It changes if one of them is replaced, so that a stored shaft can be checked without
+	 * scanning it again.
+	 */
+	public int computeStructureHash() {
+		long[] columns = footprint.getColumns();
+		int hash = 31 * Arrays.hashCode(columns) + minY;
+		hash = 31 * hash + maxY;
+		hash = 31 * hash + hashTypesAt(minY);
+		for (List<Block> buttons : floorButtons) {
+			// button order depends on the order of the base blocks
+			int floorHash = 0;
+			for (Block button : buttons) {
+				floorHash += Objects.hash(button.getX(), button.getY(), button.getZ(), button.getType().name());
+			}
+			hash = 31 * hash + floorHash;
+			hash = 31 * hash + hashTypesAt(buttons.get(0).getY() - 2);
+		}
+		return hash;
+	}
+
+	private int hashTypesAt(int y) {
+		int hash = 1;
+		for (long column : footprint.getColumns()) {
+			hash = 31 * hash + world.getBlockAt((int) (column >> 32), y, (int) column)
+					.getType()
+					.name()
+					.hashCode();
+		}
+		return hash;
+	}
+
+	/**
+	 * Get all columns in which a block change may affect this shaft
+	 */
+	public Set<Long> getWatchedColumns() {
+		Set<Long> watched = new HashSet<>();
+		for (Block base : baseBlocks) {
+			watched.add(Calculator.toColumnKey(base.getX(), base.getZ()));
+			NEIGHBOR_FACES.forEach(face -> watched.add(Calculator.toColumnKey(base.getX() + face.getModX(),
+					base.getZ() + face.getModZ())));
+		}
+		return watched;
+	}
+}
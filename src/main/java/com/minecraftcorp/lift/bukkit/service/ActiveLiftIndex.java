@@ -0,0 +1,81 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.util.*;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Finds active lifts by world and chunk column, so that frequent events like player movement don't need to check
+ * every active lift.
+ */
+public class ActiveLiftIndex {
+
+	/**
+	 * Blocks around the shaft that are indexed as well, because an entity's bounding box may reach into the shaft
+	 * from a neighbor block
+	 */
+	private static final int MARGIN = 1;
+	private final Map<UUID, Map<Long, Set<BukkitElevator>>> liftsByChunk = new HashMap<>();
+
+	public void add(BukkitElevator elevator) {
+		Map<Long, Set<BukkitElevator>> chunks = liftsByChunk.computeIfAbsent(elevator.getWorld().getUID(),
+				uuid -> new HashMap<>());
+		getChunkKeys(elevator).forEach(key -> chunks.computeIfAbsent(key, k -> new HashSet<>(2)).add(elevator));
+	}
+
+	public void remove(BukkitElevator elevator) {
+		UUID worldId = elevator.getWorld().getUID();
+		Map<Long, Set<BukkitElevator>> chunks = liftsByChunk.get(worldId);
+		if (chunks == null) {
+			return;
+		}
+		for (Long key : getChunkKeys(elevator)) {
+			Set<BukkitElevator> lifts = chunks.get(key);
+			if (lifts == null) {
+				continue;
+			}
+			lifts.remove(elevator);
+			if (lifts.isEmpty()) {
+				chunks.remove(key);
+			}
+		}
+		if (chunks.isEmpty()) {
+			liftsByChunk.remove(worldId);
+		}
+	}
+
+	/**
+	 * Get all active lifts whose shaft is near the chunk column of the given location
+	 */
+	public Set<BukkitElevator> getLifts(Location location) {
+		World world = location.getWorld();
+		if (world == null) {
+			return Collections.emptySet();
+		}
+		Map<Long, Set<BukkitElevator>> chunks = liftsByChunk.get(world.getUID());
+		if (chunks == null) {
+			return Collections.emptySet();
+		}
+		return chunks.getOrDefault(Calculator.toColumnKey(location.getBlockX() >> 4, location.getBlockZ() >> 4),
+				Collections.emptySet());
+	}
+
+	private static Set<Long> getChunkKeys(BukkitElevator elevator) {
+		Set<Long> keys = new HashSet<>();
+		for (Block base : elevator.getBaseBlocks()) {
+			int minChunkX = (base.getX() - MARGIN) >> 4;
+			int maxChunkX = (base.getX() + MARGIN) >> 4;
+			int minChunkZ = (base.getZ() - MARGIN) >> 4;
+			int maxChunkZ = (base.getZ() + MARGIN) >> 4;
+			for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+				for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+					keys.add(Calculator.toColumnKey(chunkX, chunkZ));
+				}
+			}
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,112 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * All block changes of lifts go through this queue. Changes are applied without physics, in submission order and
+ * limited by blockUpdatesPerTick. Changes of the same tick are grouped by chunk.
+ */
+public class BlockMutationQueue extends ScheduledTask {
+
+	public static final BlockMutationQueue INSTANCE = new BlockMutationQueue();
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private final Deque<Mutation> pending = new ArrayDeque<>();
+	private int appliedThisTick;
+
+	private BlockMutationQueue() {
+		super(1);
+	}
+
+	public void start() {
+		ElevatorScheduler.INSTANCE.schedule(this);
+	}
+
+	@Override
+	public void run() {
+		appliedThisTick = 0;
+		flush();
+	}
+
+	/**
+	 * Replace the block with air. 'onRemoved' receives the state before removal.
+	 */
+	public void remove(Block block, Consumer<BlockState> onRemoved) {
+		pending.add(new Mutation(block, () -> {
+			BlockState state = block.getState();
+			block.setType(Material.AIR, false);
+			onRemoved.accept(state);
+		}));
+	}
+
+	/**
+	 * Restore the state of a block that was removed by {@link #remove}. As the queue keeps submission order, the
+	 * state is queried when the removal has been applied already.
+	 */
+	public void restore(Block block, Supplier<BlockState> state) {
+		pending.add(new Mutation(block, () -> {
+			BlockState blockState = state.get();
+			if (blockState == null) {
+				plugin.logWarn("Could not restore block at " + block.getLocation());
+				return;
+			}
+			blockState.update(true, false);
+		}));
+	}
+
+	public void setBlockData(Block block, BlockData blockData) {
+		pending.add(new Mutation(block, () -> block.setBlockData(blockData, false)));
+	}
+
+	/**
+	 * Apply pending changes until the budget of the current tick is used up
+	 */
+	public void flush() {
+		int limit = config.getBlockUpdatesPerTick();
+		int budget = limit > 0 ? limit - appliedThisTick : pending.size();
+		if (pending.isEmpty() || budget <= 0) {
+			return;
+		}
+		List<Mutation> batch = new ArrayList<>(Math.min(budget, pending.size()));
+		while (batch.size() < budget && !pending.isEmpty()) {
+			batch.add(pending.poll());
+		}
+		// stable sort, so changes of the same block keep their order
+		batch.sort(Comparator.comparingLong(Mutation::getChunkKey));
+		batch.forEach(mutation -> mutation.write.run());
+		appliedThisTick += batch.size();
+		if (!pending.isEmpty()) {
+			plugin.logDebug(pending.size() + " block changes are postponed to the next tick");
+		}
+	}
+
+	/**
+	 * Apply all pending changes regardless of the budget, e.g. when the plugin gets disabled
+	 */
+	public void flushAll() {
+		while (!pending.isEmpty()) {
+			pending.poll().write.run();
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static class Mutation {
+
+		private final Block block;
+		private final Runnable write;
+
+		private long getChunkKey() {
+			return Calculator.toColumnKey(block.getX() >> 4, block.getZ() >> 4);
+		}
+	}
+}
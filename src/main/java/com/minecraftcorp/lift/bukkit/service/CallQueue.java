@@ -0,0 +1,115 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.model.BukkitFloorSign;
+import com.minecraftcorp.lift.common.exception.ElevatorException;
+import com.minecraftcorp.lift.common.model.Floor;
+import com.minecraftcorp.lift.common.model.Messages;
+import java.util.*;
+import java.util.stream.Collectors;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+/**
+ * Collects calls from floors of shafts that have a running ride. A call whose floor and destination lie ahead of the
+ * car in its direction of travel becomes a stop of that ride, so that its passengers board on the way. Other calls
+ * wait until the ride has finished and are then created again from their buttons, so that they join the next ride.
+ */
+public class CallQueue {
+
+	public static final CallQueue INSTANCE = new CallQueue();
+	private static final Messages messages = Messages.INSTANCE;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final ElevatorScheduler scheduler = ElevatorScheduler.INSTANCE;
+	/**
+	 * Buttons of the calls that wait for a running ride to finish, in order of arrival
+	 */
+	private final Map<BukkitElevator, List<Block>> waitingCalls = new HashMap<>();
+
+	private CallQueue() {
+	}
+
+	/**
+	 * @param call elevator created by a click on a button, with its destination read from the sign
+	 * @return false if there is no running ride in the shaft of 'call', so that it may start a ride of its own
+	 */
+	public boolean call(BukkitElevator call) {
+		Optional<BukkitElevator> running = plugin.getActiveLifts()
+				.stream()
+				.filter(lift -> lift.getBaseBlocks().equals(call.getBaseBlocks()))
+				.findFirst();
+		if (running.isEmpty()) {
+			return false;
+		}
+		BukkitElevator ride = running.get();
+		Optional<Floor> floor = ride.getFloorFromY(call.getStartFloor().getButtonY());
+		Optional<Floor> dest = ride.getFloorFromY(call.getDestFloor().getButtonY());
+		List<Entity> waiting = floor.map(callFloor -> getWaitingEntities(ride, callFloor))
+				.orElse(Collections.emptyList());
+		Set<Player> players = waiting.stream()
+				.filter(Player.class::isInstance)
+				.map(Player.class::cast)
+				.collect(Collectors.toCollection(LinkedHashSet::new));
+		if (call.getCaller() != null) {
+			players.add(call.getCaller());
+		}
+		// a stop without waiting entities is of no use, so such a call waits until entities may have entered the floor
+		if (!waiting.isEmpty() && floor.isPresent() && dest.isPresent() &&
+				ride.addCall(floor.get(), dest.get(), scheduler.getTick())) {
+			players.forEach(player -> player.sendMessage(messages.getLiftStopping()));
+			plugin.logDebug("Added stop at level " + floor.get().getLevel() + " to level " + dest.get().getLevel() +
+					" to running elevator");
+			return true;
+		}
+		List<Block> buttons = waitingCalls.computeIfAbsent(ride, key -> new ArrayList<>());
+		Block button = getButton(call);
+		// the destination is read from the sign again, so a later call from the same floor only keeps the position
+		if (buttons.stream()
+				.noneMatch(waitingButton -> waitingButton.getY() == button.getY())) {
+			buttons.add(button);
+		}
+		players.forEach(player -> player.sendMessage(messages.getLiftCalled()));
+		plugin.logDebug("Call from level " + call.getStartFloor().getLevel() + " waits for running elevator");
+		return true;
+	}
+
+	/**
+	 * Start the calls that waited for 'ride'. The first call starts a new ride, later calls join it, if they can.
+	 * Calls are created again, as the ride changed the floors and the entities in the shaft since they were made.
+	 */
+	public void rideFinished(BukkitElevator ride) {
+		List<Block> buttons = waitingCalls.remove(ride);
+		if (buttons == null) {
+			return;
+		}
+		for (Block button : buttons) {
+			try {
+				ElevatorFactory.createElevator(button)
+						.ifPresent(ElevatorExecutor::runElevator);
+			} catch (ElevatorException e) {
+				plugin.logDebug("Dropped call from button at y " + button.getY() + ": " + e.getMessage());
+			} catch (RuntimeException e) {
+				plugin.logError("Could not start call from button at y " + button.getY(), e);
+			}
+		}
+	}
+
+	/**
+	 * The initial sign of a call is the sign above its button
+	 */
+	private static Block getButton(BukkitElevator call) {
+		return ((BukkitFloorSign) call.getInitialSign()).getSign()
+				.getBlock()
+				.getRelative(BlockFace.DOWN);
+	}
+
+	private static List<Entity> getWaitingEntities(BukkitElevator ride, Floor floor) {
+		return ElevatorExecutor.findEntitiesOnFloor(ride, floor)
+				.stream()
+				.filter(entity -> !ride.isRider(entity))
+				.toList();
+	}
+}
@@ -0,0 +1,111 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Bukkit;
+
+/**
+ * Reloads the config when config.yml is saved, if watchConfig is enabled. Changes are collected for a second, so that
+ * editors that write a file in several steps cause a single reload.
+ */
+public class ConfigWatcher {
+
+	public static final ConfigWatcher INSTANCE = new ConfigWatcher();
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final String CONFIG_FILE = "config.yml";
+	private static final long DEBOUNCE_MILLIS = 1000;
+	private WatchService watchService;
+	private Thread thread;
+
+	private ConfigWatcher() {
+	}
+
+	/**
+	 * Start or stop watching, depending on the current config
+	 */
+	public void update() {
+		if (config.getWatchConfig()) {
+			start();
+		} else {
+			stop();
+		}
+	}
+
+	public void stop() {
+		if (thread == null) {
+			return;
+		}
+		thread.interrupt();
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			plugin.logWarn("Could not stop watching " + CONFIG_FILE + ": " + e.getMessage());
+		}
+		thread = null;
+		watchService = null;
+		plugin.logDebug("Stopped watching " + CONFIG_FILE);
+	}
+
+	private void start() {
+		if (thread != null) {
+			return;
+		}
+		try {
+			watchService = FileSystems.getDefault()
+					.newWatchService();
+			plugin.getDataFolder()
+					.toPath()
+					.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException e) {
+			plugin.logWarn("Could not watch " + CONFIG_FILE + ": " + e.getMessage());
+			watchService = null;
+			return;
+		}
+		WatchService service = watchService;
+		thread = new Thread(() -> watch(service), "Lift config watcher");
+		thread.setDaemon(true);
+		thread.start();
+		plugin.logDebug("Watching " + CONFIG_FILE + " for changes");
+	}
+
+	private static void watch(WatchService service) {
+		try {
+			while (!Thread.currentThread()
+					.isInterrupted()) {
+				boolean changed = isConfigChange(service.take());
+				WatchKey key;
+				while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					changed |= isConfigChange(key);
+				}
+				if (changed && !Thread.currentThread()
+						.isInterrupted()) {
+					Bukkit.getScheduler()
+							.runTask(plugin, ConfigWatcher::reload);
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// watching was stopped
+		}
+	}
+
+	private static boolean isConfigChange(WatchKey key) {
+		boolean changed = key.pollEvents()
+				.stream()
+				.anyMatch(event -> CONFIG_FILE.equals(String.valueOf(event.context())));
+		key.reset();
+		return changed;
+	}
+
+	private static void reload() {
+		plugin.logInfo(CONFIG_FILE + " changed, reloading");
+		plugin.reload()
+				.exceptionally(e -> {
+					plugin.logError("Could not reload changed " + CONFIG_FILE, e);
+					return null;
+				});
+	}
+}
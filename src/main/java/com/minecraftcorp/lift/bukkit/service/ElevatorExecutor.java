@@ -3,8 +3,16 @@ package com.minecraftcorp.lift.bukkit.service;
 import com.minecraftcorp.lift.bukkit.LiftPlugin;
 import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
 import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.service.stats.LiftStats;
+import com.minecraftcorp.lift.bukkit.service.stats.Phase;
 import com.minecraftcorp.lift.common.model.Floor;
+import com.minecraftcorp.lift.common.model.Messages;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -26,33 +34,130 @@ import org.bukkit.util.Vector;
 public class ElevatorExecutor {
 
 	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private static final Messages messages = Messages.INSTANCE;
+	private static final LiftStats stats = LiftStats.INSTANCE;
 	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	/**
+	 * Height of the part of the shaft above a floor, in which entities are searched
+	 */
+	private static final int SLICE_HEIGHT = 3;
 	private static final List<Material> RAIL_MATERIALS = Arrays.asList(Material.RAIL, Material.DETECTOR_RAIL,
 			Material.ACTIVATOR_RAIL, Material.POWERED_RAIL);
 
 	public static void runElevator(BukkitElevator elevator) {
 		elevator.setDestFloorFromSign();
+		if (CallQueue.INSTANCE.call(elevator)) {
+			return;
+		}
 
-		List<Entity> entities = findEntities(elevator);
+		List<Entity> entities = findEntities(elevator, getInvolvedFloors(elevator));
 		List<Entity> passengers = extractPassengers(entities, elevator.getStartFloor());
-		Set<Entity> freezers = extractFreezers(entities, passengers);
 		if (passengers.isEmpty()) {
 			plugin.logDebug("No passengers in Elevator");
 			return;
 		}
+		if (!RideAdmission.INSTANCE.admit(elevator, passengers)) {
+			return;
+		}
+		startElevator(elevator, entities, passengers);
+	}
+
+	/**
+	 * Start a ride that waited for admission. Entities are searched again, as they might have moved in the meantime.
+	 */
+	static void runAdmittedElevator(BukkitElevator elevator) {
+		if (CallQueue.INSTANCE.call(elevator)) {
+			return;
+		}
+		List<Entity> entities = findEntities(elevator, getInvolvedFloors(elevator));
+		List<Entity> passengers = extractPassengers(entities, elevator.getStartFloor());
+		if (passengers.isEmpty()) {
+			plugin.logDebug("No passengers in queued Elevator");
+			return;
+		}
+		startElevator(elevator, entities, passengers);
+	}
+
+	private static void startElevator(BukkitElevator elevator, List<Entity> entities, List<Entity> candidates) {
+		List<Entity> passengers = limitPassengers(candidates);
+		// entities that don't fit are held in place like all other entities in the shaft
+		Set<Entity> freezers = extractFreezers(entities, passengers);
 
-		elevator.addPassengers(passengers);
+		elevator.addPassengers(passengers, elevator.getDestFloor());
 		elevator.addFreezers(freezers);
 		if (config.getAutoPlace()) {
 			tpPassengersToFloor(elevator, elevator.getStartFloor());
 		}
-		removeFloorBlocks(elevator);
+		long start = System.nanoTime();
+		removeFloorBlocks(elevator, elevator.getFloorsToRemove());
 		tempRemoveRailsUnderMinecarts(passengers);
-		elevator.initTimeMeasures();
+		BlockMutationQueue.INSTANCE.flush();
+		stats.record(Phase.FLOOR_REMOVAL, elevator.getShaft(), System.nanoTime() - start);
+		elevator.initTimeMeasures(ElevatorScheduler.INSTANCE.getTick());
 
 		new ElevatorTask(elevator);
 	}
 
+	/**
+	 * Let entities on 'stop' board a ride that stops there. Entities that don't fit are held in place.
+	 */
+	static void boardAtStop(BukkitElevator elevator, Floor stop, Floor destination) {
+		List<Entity> candidates = findEntitiesOnFloor(elevator, stop).stream()
+				.filter(entity -> !elevator.isRider(entity))
+				.filter(entity -> plugin.isInNoLift(entity) || elevator.getFreezers().contains(entity))
+				.toList();
+		int riders = elevator.getDestinations().size();
+		int limit = RideAdmission.INSTANCE.limitPassengerCount(riders + candidates.size()) - riders;
+		List<Entity> boarders = limitPassengers(candidates, Math.max(limit, 0));
+		elevator.addPassengers(boarders, destination);
+		elevator.addFreezers(extractFreezers(candidates, boarders));
+		candidates.forEach(ElevatorExecutor::prepareEntityPhysics);
+		plugin.logDebug(boarders.size() + " passengers boarded at level " + stop.getLevel());
+	}
+
+	/**
+	 * Hold entities in place that stand on 'floors', which are removed after the ride started
+	 */
+	static void holdEntitiesOnFloors(BukkitElevator elevator, List<Floor> floors) {
+		if (floors.isEmpty()) {
+			return;
+		}
+		List<Entity> entities = findEntities(elevator, floors);
+		elevator.addFreezers(entities);
+		entities.forEach(ElevatorExecutor::prepareEntityPhysics);
+	}
+
+	/**
+	 * Get entities in the shaft that stand on 'floor', regardless of whether they ride a lift
+	 */
+	static List<Entity> findEntitiesOnFloor(BukkitElevator elevator, Floor floor) {
+		return findEntitiesInSlices(elevator, Collections.singletonList(floor)).stream()
+				.filter(entity -> isEntityOnFloor(floor, entity))
+				.collect(Collectors.toCollection(ArrayList::new));
+	}
+
+	private static List<Entity> limitPassengers(List<Entity> candidates) {
+		return limitPassengers(candidates, RideAdmission.INSTANCE.limitPassengerCount(candidates.size()));
+	}
+
+	/**
+	 * Players are preferred over other entities, if there are more candidates than 'limit'
+	 */
+	private static List<Entity> limitPassengers(List<Entity> candidates, int limit) {
+		if (limit == candidates.size()) {
+			return candidates;
+		}
+		List<Entity> passengers = candidates.stream()
+				.sorted(Comparator.comparing((Entity entity) -> !(entity instanceof Player)))
+				.limit(limit)
+				.toList();
+		candidates.stream()
+				.filter(entity -> entity instanceof Player && !passengers.contains(entity))
+				.forEach(player -> player.sendMessage(messages.getLiftFull()));
+		plugin.logDebug("Elevator is full. Left " + (candidates.size() - limit) + " entities behind");
+		return passengers;
+	}
+
 	private static void tempRemoveRailsUnderMinecarts(List<Entity> passengers) {
 		passengers.stream()
 				.filter(Minecart.class::isInstance)
@@ -89,8 +194,15 @@ public class ElevatorExecutor {
 		}
 	}
 
-	private static void removeFloorBlocks(BukkitElevator elevator) {
-		List<Floor> floorsToRemove = elevator.getFloorsToRemove();
+	/**
+	 * Remove the blocks of all floors that are not removed yet. Changes are applied by {@link BlockMutationQueue}.
+	 *
+	 * @return the floors that were not removed before
+	 */
+	static List<Floor> removeFloorBlocks(BukkitElevator elevator, List<Floor> floors) {
+		List<Floor> floorsToRemove = floors.stream()
+				.filter(elevator::addRemovedFloor)
+				.toList();
 		World world = elevator.getWorld();
 		for (Block baseBlock : elevator.getBaseBlocks()) {
 			for (Floor floor : floorsToRemove) {
@@ -106,24 +218,85 @@ public class ElevatorExecutor {
 				removeAndSaveBlock(elevator, block);
 			}
 		}
+		return floorsToRemove;
+	}
+
+	/**
+	 * Put back the blocks of a floor the car stops at, so that passengers can get off and on
+	 */
+	static void restoreFloorBlocks(BukkitElevator elevator, Floor floor) {
+		BlockMutationQueue mutationQueue = BlockMutationQueue.INSTANCE;
+		elevator.takeRemovedBlocks(floor)
+				.stream()
+				.sorted(Comparator.comparingInt(Block::getY))
+				.forEach(block -> mutationQueue.restore(block, () -> elevator.getSavedBlock(block)));
+		mutationQueue.flush();
 	}
 
 	private static void removeAndSaveBlock(BukkitElevator elevator, Block block) {
-		elevator.saveBlock(block.getState());
-		block.setType(Material.AIR);
+		elevator.addRemovedBlock(block);
+		BlockMutationQueue.INSTANCE.remove(block, elevator::saveBlock);
 	}
 
-	private static List<Entity> findEntities(BukkitElevator elevator) {
-		BoundingBox shaftArea = elevator.getShaftArea();
-		List<Entity> entities = elevator.getWorld()
-				.getNearbyEntities(shaftArea, entity -> config.getLiftMobs() || entity instanceof Player)
-				.stream()
+	/**
+	 * Floors whose entities are affected by a ride: passengers stand on the start floor, and entities on removed
+	 * floors have to be held in place. Entities on other floors are not searched.
+	 */
+	private static List<Floor> getInvolvedFloors(BukkitElevator elevator) {
+		List<Floor> floors = new ArrayList<>(elevator.getFloorsToRemove());
+		if (!floors.contains(elevator.getStartFloor())) {
+			floors.add(elevator.getStartFloor());
+		}
+		return floors;
+	}
+
+	/**
+	 * Get entities on 'floors' that don't ride any lift yet
+	 */
+	private static List<Entity> findEntities(BukkitElevator elevator, List<Floor> floors) {
+		long start = System.nanoTime();
+		List<Entity> entities = findEntitiesInSlices(elevator, floors).stream()
 				.filter(plugin::isInNoLift)
 				.toList();
-		plugin.logDebug("Found " + entities.size() + " entities in " + shaftArea);
+		stats.record(Phase.ENTITY_DISCOVERY, elevator.getShaft(), System.nanoTime() - start);
+		plugin.logDebug("Found " + entities.size() + " entities on " + floors.size() + " floors");
+		return entities;
+	}
+
+	/**
+	 * Get entities in the shaft that are within the slice of one of 'floors'. Without mobs, players are taken from
+	 * {@link ShaftOccupancy}, so the world is not queried.
+	 */
+	private static Collection<Entity> findEntitiesInSlices(BukkitElevator elevator, List<Floor> floors) {
+		List<BoundingBox> slices = floors.stream()
+				.map(floor -> getSlice(elevator, floor))
+				.toList();
+		if (!config.getLiftMobs()) {
+			return ShaftOccupancy.INSTANCE.getPlayers(elevator)
+					.stream()
+					.filter(player -> !elevator.isOutsideShaft(player))
+					.filter(player -> slices.stream()
+							.anyMatch(slice -> slice.overlaps(player.getBoundingBox())))
+					.collect(Collectors.toList());
+		}
+		// entities may reach into two slices
+		Set<Entity> entities = new LinkedHashSet<>();
+		World world = elevator.getWorld();
+		for (BoundingBox slice : slices) {
+			entities.addAll(world.getNearbyEntities(slice, entity -> !elevator.isOutsideShaft(entity)));
+		}
 		return entities;
 	}
 
+	/**
+	 * Part of the shaft from the blocks of 'floor' to the height an entity standing on it can reach
+	 */
+	private static BoundingBox getSlice(BukkitElevator elevator, Floor floor) {
+		BoundingBox shaftArea = elevator.getShaftArea();
+		return new BoundingBox(shaftArea.getMinX(), floor.getFloorY(), shaftArea.getMinZ(), shaftArea.getMaxX(),
+				floor.getFloorY() + SLICE_HEIGHT, shaftArea.getMaxZ());
+	}
+
 	private static List<Entity> extractPassengers(List<Entity> entities, Floor floor) {
 		return entities.stream()
 				.filter(entity -> isEntityOnFloor(floor, entity))
@@ -3,24 +3,31 @@ package com.minecraftcorp.lift.bukkit.service;
 import com.minecraftcorp.lift.bukkit.LiftPlugin;
 import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
 import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.model.BukkitFloor;
 import com.minecraftcorp.lift.bukkit.model.BukkitFloorSign;
+import com.minecraftcorp.lift.bukkit.model.Shaft;
+import com.minecraftcorp.lift.bukkit.service.ShaftCache.PendingScan;
+import com.minecraftcorp.lift.bukkit.service.SnapshotShaftScanner.ScanResult;
+import com.minecraftcorp.lift.bukkit.service.stats.LiftStats;
+import com.minecraftcorp.lift.bukkit.service.stats.Phase;
 import com.minecraftcorp.lift.common.exception.ElevatorCreateException;
+import com.minecraftcorp.lift.common.exception.ElevatorException;
 import com.minecraftcorp.lift.common.exception.ElevatorUsageException;
 import com.minecraftcorp.lift.common.model.Elevator;
 import com.minecraftcorp.lift.common.model.Floor;
-import com.minecraftcorp.lift.common.model.FloorSign;
 import com.minecraftcorp.lift.common.model.Messages;
+import com.minecraftcorp.lift.common.util.Calculator;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import lombok.experimental.UtilityClass;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
-import org.bukkit.block.Sign;
 
 @UtilityClass
 public class ElevatorFactory {
@@ -28,31 +35,173 @@ public class ElevatorFactory {
 	public static final BukkitConfig config = BukkitConfig.INSTANCE;
 	public static final Messages messages = Messages.INSTANCE;
 	public static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final ShaftCache shaftCache = ShaftCache.INSTANCE;
+	private static final LiftStats stats = LiftStats.INSTANCE;
 
 	public static Optional<BukkitElevator> createElevator(Block buttonBlock) {
 		if (!config.isValidLiftStructureFromButton(buttonBlock)) {
 			return Optional.empty();
 		}
+		return createElevator(buttonBlock, findShaft(buttonBlock));
+	}
 
-		Set<Block> baseBlocks = findBaseBlocksBelow(buttonBlock);
-		if (baseBlocks.isEmpty()) {
+	/**
+	 * Like {@link #createElevator(Block)}, but scans unknown shafts from chunk snapshots off the main thread, if
+	 * asyncScan is enabled. The returned future is always completed on the main thread.
+	 */
+	public static CompletableFuture<Optional<BukkitElevator>> createElevatorAsync(Block buttonBlock) {
+		CompletableFuture<Optional<BukkitElevator>> future = new CompletableFuture<>();
+		try {
+			if (!config.getAsyncScan() || !config.isValidLiftStructureFromButton(buttonBlock)) {
+				future.complete(createElevator(buttonBlock));
+				return future;
+			}
+			Optional<Shaft> cached = findCachedShaft(buttonBlock);
+			if (cached.isPresent()) {
+				future.complete(createElevator(buttonBlock, cached));
+				return future;
+			}
+			List<Block> baseBlocks = new ArrayList<>(findBaseBlocksBelow(buttonBlock));
+			if (baseBlocks.isEmpty()) {
+				future.complete(createElevator(buttonBlock, Optional.empty()));
+				return future;
+			}
+			PendingScan pendingScan = shaftCache.startScan(baseBlocks);
+			SnapshotShaftScanner scanner = new SnapshotShaftScanner(baseBlocks);
+			Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+				try {
+					long start = System.nanoTime();
+					ScanResult result = scanner.scan();
+					long scanNanos = System.nanoTime() - start;
+					Bukkit.getScheduler().runTask(plugin, () -> completeAsyncScan(future, buttonBlock, baseBlocks, result,
+							pendingScan, scanNanos));
+				} catch (Exception e) {
+					Bukkit.getScheduler().runTask(plugin, () -> {
+						shaftCache.finishScan(pendingScan);
+						future.completeExceptionally(e);
+					});
+				}
+			});
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private static void completeAsyncScan(CompletableFuture<Optional<BukkitElevator>> future, Block buttonBlock,
+			List<Block> baseBlocks, ScanResult result, PendingScan pendingScan, long scanNanos) {
+		try {
+			boolean unchanged = shaftCache.finishScan(pendingScan);
+			if (!config.isValidLiftStructureFromButton(buttonBlock)) {
+				future.complete(Optional.empty());
+				return;
+			}
+			World world = buttonBlock.getWorld();
+			List<List<Block>> floorButtons = result.getFloors()
+					.stream()
+					.map(floor -> floor.getColumns()
+							.stream()
+							.map(baseBlocks::get)
+							.map(base -> world.getBlockAt(base.getX(), floor.getButtonY(), base.getZ()))
+							.toList())
+					.toList();
+			Shaft shaft = new Shaft(new HashSet<>(baseBlocks), floorButtons, result.getMaxY());
+			stats.record(Phase.SCAN, shaft, scanNanos);
+			if (!unchanged || !isStillValid(shaft)) {
+				plugin.logDebug("Shaft changed while scanning. Scanning again synchronously.");
+				future.complete(createElevator(buttonBlock));
+				return;
+			}
+			cacheShaft(shaft);
+			future.complete(createElevator(buttonBlock, Optional.of(shaft)));
+		} catch (Exception e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	private static Optional<BukkitElevator> createElevator(Block buttonBlock, Optional<Shaft> shaft) {
+		if (shaft.isEmpty()) {
 			plugin.logDebug("Found no base block. Assuming this is not supposed to be an elevator.");
 			return Optional.empty();
 		}
-		List<Floor> floors = createFloors(baseBlocks);
+		Set<Block> baseBlocks = shaft.get().getBaseBlocks();
+		List<Floor> floors = createFloors(shaft.get());
 		if (floors.size() <= 1) {
 			throw new ElevatorUsageException(messages.getOneFloor());
 		}
 		plugin.logDebug("Found " + baseBlocks.size() + " base blocks and " + floors.size() + " floors");
 		Floor startFloor = getStartFloor(buttonBlock, floors);
-		BukkitElevator elevator = new BukkitElevator(baseBlocks, startFloor, floors, findInitialSign(buttonBlock, startFloor));
-		floors.stream()
-				.flatMap(floor -> floor.getSigns().stream())
+		BukkitElevator elevator = new BukkitElevator(shaft.get(), startFloor, floors, findInitialSign(buttonBlock, startFloor));
+		// signs of other floors are only loaded if needed
+		startFloor.getSigns()
 				.forEach(sign -> sign.setElevator(elevator));
-		writeInvalidFloorSigns(elevator);
+		writeInvalidFloorSigns(elevator, startFloor);
 		return Optional.of(elevator);
 	}
 
+	/**
+	 * Get the shaft of the button from cache or scan it, if it is not cached yet
+	 */
+	private static Optional<Shaft> findShaft(Block buttonBlock) {
+		Optional<Shaft> cached = findCachedShaft(buttonBlock);
+		if (cached.isPresent()) {
+			return cached;
+		}
+		long start = System.nanoTime();
+		Set<Block> baseBlocks = findBaseBlocksBelow(buttonBlock);
+		if (baseBlocks.isEmpty()) {
+			return Optional.empty();
+		}
+		Shaft shaft = scanShaft(baseBlocks);
+		stats.record(Phase.SCAN, shaft, System.nanoTime() - start);
+		cacheShaft(shaft);
+		return Optional.of(shaft);
+	}
+
+	private static Optional<Shaft> findCachedShaft(Block buttonBlock) {
+		Optional<Shaft> cached = shaftCache.get(buttonBlock);
+		if (cached.isEmpty()) {
+			return Optional.empty();
+		}
+		if (!isStillValid(cached.get())) {
+			shaftCache.invalidate(cached.get());
+			return Optional.empty();
+		}
+		plugin.logDebug("Using cached shaft");
+		stats.countCachedScan();
+		return cached;
+	}
+
+	private static void cacheShaft(Shaft shaft) {
+		if (isInUse(shaft)) {
+			// floor blocks of a running lift are removed, so the scan does not show the actual structure
+			plugin.logDebug("Shaft is in use and will not be cached");
+			return;
+		}
+		shaftCache.put(shaft);
+	}
+
+	/**
+	 * Cheap check for changes that don't fire block events (like changes by other plugins)
+	 */
+	private static boolean isStillValid(Shaft shaft) {
+		return shaft.getBaseBlocks()
+				.stream()
+				.allMatch(config::isBaseBlock) &&
+				shaft.getFloorButtons()
+						.stream()
+						.flatMap(List::stream)
+						.allMatch(config::isValidLiftStructureFromButton);
+	}
+
+	private static boolean isInUse(Shaft shaft) {
+		return plugin.getActiveLifts()
+				.stream()
+				.anyMatch(lift -> lift.getWorld().equals(shaft.getWorld()) && lift.getBaseBlocks()
+						.stream()
+						.anyMatch(base -> shaft.contains(base.getX(), base.getY(), base.getZ())));
+	}
+
 	private static BukkitFloorSign findInitialSign(Block buttonBlock, Floor startFloor) {
 		BiFunction<BukkitFloorSign, Function<Location, Integer>, Integer> getCoord = (sign, locFunc) -> locFunc.apply(
 				sign.getSign().getLocation());
@@ -65,19 +214,43 @@ public class ElevatorFactory {
 				.orElseThrow(() -> new ElevatorCreateException("Could not extract initial floor sign from start floor"));
 	}
 
+	/**
+	 * Rewrite the signs of all floors that are blank or outdated. This reads the signs of every floor.
+	 */
 	public static void writeInvalidFloorSigns(Elevator elevator) {
+		elevator.getFloors()
+				.forEach(floor -> writeInvalidFloorSigns(elevator, floor));
+	}
+
+	private static void writeInvalidFloorSigns(Elevator elevator, Floor current) {
 		List<Floor> floors = elevator.getFloors();
-		for (int level = 0; level < floors.size(); level++) {
-			Floor current = floors.get(level);
-			boolean anyInvalid = !current.getSigns()
-					.stream()
-					.allMatch(FloorSign::isValid);
-			if (anyInvalid) {
-				current.updateSigns(floors.get(level == floors.size() - 1 ? 0 : level + 1));
-			}
+		boolean anyInvalid = !current.getSigns()
+				.stream()
+				.allMatch(sign -> sign.isValid(current));
+		if (anyInvalid) {
+			// levels start at 1, so this is the index of the next floor
+			int nextIndex = current.getLevel() % floors.size();
+			current.updateSigns(readPreviousDest(floors, current).orElse(floors.get(nextIndex)));
 		}
 	}
 
+	/**
+	 * Destination that can still be read from an outdated sign, so that rewriting it keeps the selection
+	 */
+	private static Optional<Floor> readPreviousDest(List<Floor> floors, Floor current) {
+		int destLevel;
+		try {
+			destLevel = current.getSigns()
+					.get(0)
+					.readDestLevel();
+		} catch (ElevatorException e) {
+			return Optional.empty();
+		}
+		return floors.stream()
+				.filter(floor -> floor.getLevel() == destLevel && floor != current)
+				.findFirst();
+	}
+
 	private static Floor getStartFloor(Block buttonBlock, List<Floor> floors) {
 		Optional<Floor> startFloor = floors.stream()
 				.filter(floor -> floor.getButtonY() == buttonBlock.getY())
@@ -88,15 +261,22 @@ public class ElevatorFactory {
 		return startFloor.get();
 	}
 
-	private static List<Floor> createFloors(Set<Block> baseBlocks) {
+	private static List<Floor> createFloors(Shaft shaft) {
 		List<Floor> floors = new ArrayList<>();
-		Optional<Block> firstBase = baseBlocks.stream().findFirst();
-		if (firstBase.isEmpty()) {
-			return Collections.emptyList();
+		List<List<Block>> floorButtons = shaft.getFloorButtons();
+		for (int i = 0; i < floorButtons.size(); i++) {
+			floors.add(new BukkitFloor(i + 1, floorButtons.get(i)));
 		}
-		int level = 1;
-		World world = firstBase.get().getWorld();
-		for (int y = firstBase.get().getY() + 1; y < config.getMaxHeight(); y++) {
+		return floors;
+	}
+
+	private static Shaft scanShaft(Set<Block> baseBlocks) {
+		List<List<Block>> floorButtons = new ArrayList<>();
+		Block firstBase = baseBlocks.iterator().next();
+		World world = firstBase.getWorld();
+		int y;
+		scan:
+		for (y = firstBase.getY() + 1; y < config.getMaxHeight(); y++) {
 			List<Block> buttons = new ArrayList<>();
 			for (Block baseBlock : baseBlocks) {
 				int x = baseBlock.getX();
@@ -104,44 +284,17 @@ public class ElevatorFactory {
 
 				Block block = world.getBlockAt(x, y, z);
 				if (!isValidShaftBlock(block)) {
-					return floors;
+					break scan;
 				}
 				if (config.isValidLiftStructureFromButton(block)) {
 					buttons.add(block);
 				}
 			}
 			if (!buttons.isEmpty()) {
-				floors.add(createFloor(buttons, level));
-				level++;
+				floorButtons.add(buttons);
 			}
 		}
-		return floors;
-	}
-
-	private static Floor createFloor(List<Block> buttonBlocks, int level) {
-		if (buttonBlocks.isEmpty()) {
-			throw new ElevatorCreateException("Cannot create floor with no button blocks");
-		}
-		List<FloorSign> floorSigns = buttonBlocks.stream()
-				.map(button -> button.getRelative(BlockFace.UP))
-				.map(Block::getState)
-				.map(Sign.class::cast)
-				.map(BukkitFloorSign::new)
-				.collect(Collectors.toList());
-		String floorNameFallback = floorSigns.stream()
-				.findFirst()
-				.map(FloorSign::readCurrentName)
-				.orElse("");
-		String floorName = buttonBlocks.stream()
-				.map(block -> block.getRelative(BlockFace.DOWN))
-				.filter(config::isSign)
-				.map(Block::getState)
-				.map(Sign.class::cast)
-				.map(sign -> sign.getSide(BukkitFloorSign.DEFAULT_SIDE))
-				.map(sign -> sign.getLine(1))
-				.findFirst()
-				.orElse(floorNameFallback);
-		return new Floor(level, floorName, buttonBlocks.get(0).getY(), floorSigns);
+		return new Shaft(baseBlocks, floorButtons, Math.min(y, config.getMaxHeight() - 1));
 	}
 
 	private static Set<Block> findBaseBlocksBelow(Block startBlock) {
@@ -156,33 +309,46 @@ public class ElevatorFactory {
 			if (!config.isBaseBlock(block)) {
 				return Collections.emptySet();
 			}
-			return getNeighborBaseBlocks(block, new HashSet<>());
+			return getNeighborBaseBlocks(block);
 		}
 		return Collections.emptySet();
 	}
 
-	private static Set<Block> getNeighborBaseBlocks(Block baseBlock, Set<Block> blocks) {
-		if (blocks.size() == config.getMaxLiftArea()) {
-			plugin.logDebug("Reached limit of " + blocks.size() + " base blocks (see max lift area in config)");
-			return blocks;
-		}
-		blocks.add(baseBlock);
+	/**
+	 * Breadth-first search for connected blocks of the same type, limited by the max lift area
+	 */
+	private static Set<Block> getNeighborBaseBlocks(Block baseBlock) {
+		World world = baseBlock.getWorld();
 		Material baseType = baseBlock.getType();
-		List<BlockFace> blockFaces = Arrays.asList(BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST);
-		for (BlockFace blockFace : blockFaces) {
-			Block neighbor = baseBlock.getRelative(blockFace);
-			if (!blocks.contains(neighbor) && neighbor.getType() == baseType) {
-				blocks.addAll(getNeighborBaseBlocks(neighbor, blocks));
+		int y = baseBlock.getY();
+		int maxLiftArea = config.getMaxLiftArea();
+		Set<Block> blocks = new HashSet<>();
+		Set<Long> visited = new HashSet<>();
+		Deque<Block> queue = new ArrayDeque<>();
+		blocks.add(baseBlock);
+		visited.add(Calculator.toColumnKey(baseBlock.getX(), baseBlock.getZ()));
+		queue.add(baseBlock);
+		while (!queue.isEmpty()) {
+			Block block = queue.poll();
+			for (BlockFace face : Shaft.NEIGHBOR_FACES) {
+				if (blocks.size() >= maxLiftArea) {
+					plugin.logDebug("Reached limit of " + blocks.size() + " base blocks (see max lift area in config)");
+					return blocks;
+				}
+				int x = block.getX() + face.getModX();
+				int z = block.getZ() + face.getModZ();
+				if (!visited.add(Calculator.toColumnKey(x, z)) || world.getType(x, y, z) != baseType) {
+					continue;
+				}
+				Block neighbor = world.getBlockAt(x, y, z);
+				blocks.add(neighbor);
+				queue.add(neighbor);
 			}
 		}
 		return blocks;
 	}
 
-	private static boolean isValidShaftBlock(Block block){
-		return !block.getType().isSolid()
-				|| config.getFloorMaterials().contains(block.getType())
-				|| config.isButton(block)
-				|| config.isSign(block)
-				|| config.isShaftBlock(block);
+	private static boolean isValidShaftBlock(Block block) {
+		return config.isValidShaftBlock(block.getType());
 	}
 }
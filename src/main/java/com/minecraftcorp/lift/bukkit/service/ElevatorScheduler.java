@@ -0,0 +1,103 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.service.stats.LiftStats;
+import com.minecraftcorp.lift.bukkit.service.stats.Phase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Getter;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Single Bukkit task that runs all rides and sounds of lifts. Tasks with the same period get different phases, so
+ * that their work is spread evenly across ticks. Actions that have to happen at an exact tick are run once at that
+ * tick. Sign changes are flushed after all tasks of a tick have run.
+ */
+public class ElevatorScheduler extends BukkitRunnable {
+
+	public static final ElevatorScheduler INSTANCE = new ElevatorScheduler();
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private final List<ScheduledTask> tasks = new ArrayList<>();
+	private final List<ScheduledTask> scheduled = new ArrayList<>();
+	private final TreeMap<Long, List<Runnable>> actionsByTick = new TreeMap<>();
+	@Getter
+	private long tick;
+
+	private ElevatorScheduler() {
+	}
+
+	public void start() {
+		runTaskTimer(plugin, 0, 1);
+	}
+
+	/**
+	 * Run 'task' repeatedly from the next tick on, until it is cancelled
+	 */
+	public void schedule(ScheduledTask task) {
+		task.setPhase(findLeastUsedPhase(task.getPeriod()));
+		scheduled.add(task);
+	}
+
+	/**
+	 * Run 'action' once at 'runTick', before the tasks of that tick. Actions for past ticks run in the next tick.
+	 */
+	public void runAt(long runTick, Runnable action) {
+		actionsByTick.computeIfAbsent(runTick, key -> new ArrayList<>(1))
+				.add(action);
+	}
+
+	@Override
+	public void run() {
+		long start = System.nanoTime();
+		tick++;
+		runDueActions();
+		tasks.addAll(scheduled);
+		scheduled.clear();
+		for (ScheduledTask task : tasks) {
+			if (task.isCancelled() || tick % task.getPeriod() != task.getPhase()) {
+				continue;
+			}
+			try {
+				task.run();
+			} catch (Exception e) {
+				plugin.logError("Error while running " + task.getClass().getSimpleName(), e);
+			}
+		}
+		tasks.removeIf(ScheduledTask::isCancelled);
+		SignUpdateQueue.INSTANCE.flush();
+		LiftStats.INSTANCE.record(Phase.SCHEDULER_TICK, System.nanoTime() - start);
+	}
+
+	private void runDueActions() {
+		// actions may add further actions for this tick
+		Map.Entry<Long, List<Runnable>> due;
+		while ((due = actionsByTick.firstEntry()) != null && due.getKey() <= tick) {
+			actionsByTick.remove(due.getKey());
+			for (Runnable action : due.getValue()) {
+				try {
+					action.run();
+				} catch (Exception e) {
+					plugin.logError("Error while running action of tick " + tick, e);
+				}
+			}
+		}
+	}
+
+	private int findLeastUsedPhase(int period) {
+		int[] usages = new int[period];
+		for (List<ScheduledTask> list : List.of(tasks, scheduled)) {
+			list.stream()
+					.filter(task -> task.getPeriod() == period && !task.isCancelled())
+					.forEach(task -> usages[task.getPhase()]++);
+		}
+		int phase = 0;
+		for (int i = 1; i < period; i++) {
+			if (usages[i] < usages[phase]) {
+				phase = i;
+			}
+		}
+		return phase;
+	}
+}
@@ -4,81 +4,277 @@ import com.minecraftcorp.lift.bukkit.LiftPlugin;
 import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
 import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
 import com.minecraftcorp.lift.bukkit.service.sound.SoundTask;
+import com.minecraftcorp.lift.bukkit.service.stats.LiftStats;
+import com.minecraftcorp.lift.bukkit.service.stats.Phase;
+import com.minecraftcorp.lift.common.model.Floor;
 import com.minecraftcorp.lift.common.model.Messages;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Set;
+import com.minecraftcorp.lift.common.model.Trajectory;
+import java.util.*;
+import lombok.RequiredArgsConstructor;
 import org.bukkit.Location;
-import org.bukkit.block.BlockState;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.PlayerTeleportEvent;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.Vector;
 
-public class ElevatorTask extends BukkitRunnable {
+/**
+ * Moves passengers along the planned {@link Trajectory} of the ride. Passengers get the planned velocity again at every
+ * check, as gravity slows them down, and it is corrected when they drift away from the trajectory. Arrival, departure
+ * and timeout are run by the scheduler at their planned ticks. Only passengers that are late are checked for arrival
+ * after that.
+ * <p>
+ * A ride may stop at several floors on its way. At each stop before the last one, the car waits for a moment, so
+ * that passengers can get off and waiting entities can get on.
+ */
+public class ElevatorTask extends ScheduledTask {
 
 	private static final BukkitConfig config = BukkitConfig.INSTANCE;
 	private static final Messages messages = Messages.INSTANCE;
 	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final LiftStats stats = LiftStats.INSTANCE;
+	private static final ElevatorScheduler scheduler = ElevatorScheduler.INSTANCE;
+	private static final int CHECK_INTERVAL = 2;
+	/**
+	 * Blocks a passenger may be away from the trajectory before the planned velocity is corrected
+	 */
+	private static final double DRIFT_TOLERANCE = 0.25;
+	/**
+	 * Blocks per tick a passenger's velocity may differ from the planned one, before it is sent again
+	 */
+	private static final double VELOCITY_TOLERANCE = 0.01;
+	/**
+	 * Horizontal blocks per tick that push a leaving passenger back into the shaft
+	 */
+	private static final double PUSHBACK_SPEED = 0.3;
+	/**
+	 * Checks a leaving passenger is pushed back, before it is teleported into the shaft
+	 */
+	private static final int MAX_PUSHBACK_CHECKS = 2;
+	/**
+	 * Ticks the car waits at a stop before the last one
+	 */
+	private static final int DWELL_TICKS = 20;
 	private final BukkitElevator elevator;
+	/**
+	 * Height of each passenger above the floor the car started from, when it started
+	 */
+	private final Map<Entity, Double> startOffsets = new HashMap<>();
+	/**
+	 * Number of consecutive checks each leaving passenger has been pushed back
+	 */
+	private final Map<Entity, Integer> pushbacks = new HashMap<>();
+	/**
+	 * Last velocity this task sent to each player
+	 */
+	private final Map<Entity, SentVelocity> sentVelocities = new HashMap<>();
+	/**
+	 * Leg of the ride for which arrival and timeout are scheduled
+	 */
+	private Trajectory scheduledTrajectory;
+	private long lastCheckTick = -1;
+	/**
+	 * Tick at which the car leaves the stop it waits at, or -1 while it moves
+	 */
+	private long departureTick = -1;
 	private SoundTask soundTask;
 
 	public ElevatorTask(BukkitElevator elevator) {
+		super(CHECK_INTERVAL);
 		this.elevator = elevator;
 		elevator.getInvolvedEntities()
 				.forEach(ElevatorExecutor::prepareEntityPhysics);
+		startLeg();
 
 		plugin.addActiveLift(elevator);
 		if (config.getSoundEnabled()) {
 			soundTask = SoundTask.create(elevator);
 		}
-		runTaskTimer(plugin, 0, 2);
+		ElevatorScheduler.INSTANCE.schedule(this);
+		if (elevator.getClickTime() != 0) {
+			stats.record(Phase.CLICK_TO_MOTION, elevator.getShaft(), System.nanoTime() - elevator.getClickTime());
+		}
 	}
 
 	@Override
 	public void run() {
-		Set<Entity> passengers = elevator.getPassengers();
-		if (passengers.isEmpty()) {
-			restoreFloorBlocks();
-			elevator.getFreezers()
-					.forEach(ElevatorExecutor::resetEntityPhysics);
+		// a call from another floor may have planned the leg again
+		if (departureTick < 0 && elevator.getTrajectory() != scheduledTrajectory) {
+			scheduleLeg();
+		}
+		check();
+	}
+
+	private void check() {
+		long tick = scheduler.getTick();
+		if (isCancelled() || tick == lastCheckTick) {
+			return;
+		}
+		lastCheckTick = tick;
+		long start = System.nanoTime();
+		step(tick);
+		stats.record(Phase.RIDE_TICK, elevator.getShaft(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Schedule the arrival at the next stop and the timeout of the current leg
+	 */
+	private void scheduleLeg() {
+		Trajectory trajectory = elevator.getTrajectory();
+		scheduledTrajectory = trajectory;
+		scheduler.runAt(trajectory.getArrivalTick(), () -> {
+			if (isCurrentLeg(trajectory)) {
+				check();
+			}
+		});
+		scheduler.runAt(elevator.getMaxEndTick() + 1, () -> {
+			if (isCurrentLeg(trajectory) && !isCancelled() && !elevator.getPassengers().isEmpty()) {
+				timeout();
+				elevator.clearPassengers();
+				completeLeg(scheduler.getTick());
+			}
+		});
+	}
 
-			plugin.removeActiveLift(elevator);
-			plugin.logDebug("Elevator finished");
+	/**
+	 * @return false if the car waits at a stop or the leg was planned again since 'trajectory'
+	 */
+	private boolean isCurrentLeg(Trajectory trajectory) {
+		return departureTick < 0 && elevator.getTrajectory() == trajectory;
+	}
 
-			if (soundTask != null) {
-				soundTask.cancel();
+	private void step(long tick) {
+		if (departureTick >= 0) {
+			if (tick >= departureTick) {
+				depart(tick);
+			} else {
+				elevator.getFreezers()
+						.forEach(this::freezeEntity);
 			}
-			cancel();
 			return;
 		}
-		if (System.currentTimeMillis() > elevator.getMaxEndTime()) {
-			timeout();
-			elevator.clearPassengers();
+		Set<Entity> passengers = elevator.getPassengers();
+		if (passengers.isEmpty()) {
+			completeLeg(tick);
 			return;
 		}
-		List<Entity> passengersAtDest = passengers.stream()
-				.filter(this::reachedDestination)
-				.peek(entity -> plugin.logDebug(entity.getName() + " reached destination and waits for all passengers"))
-				.toList();
+		Trajectory trajectory = elevator.getTrajectory();
+		boolean arrived = tick >= trajectory.getArrivalTick();
+		double expectedY = trajectory.getExpectedY(tick);
+		List<Entity> passengersAtDest = new ArrayList<>();
+		Map<Entity, Double> deviations = new HashMap<>();
+		for (Entity passenger : passengers) {
+			double y = passenger.getLocation().getY();
+			if (arrived && reachedDestination(y)) {
+				plugin.logDebug(passenger.getName() + " reached destination and waits for all passengers");
+				passengersAtDest.add(passenger);
+				continue;
+			}
+			if (passenger.isInsideVehicle()) {
+				continue;
+			}
+			double deviation = expectedY + startOffsets.getOrDefault(passenger, 0.0) - y;
+			// late passengers are pushed on, so that they don't stop short of the destination
+			deviations.put(passenger, arrived || Math.abs(deviation) > DRIFT_TOLERANCE ? deviation : 0);
+		}
 
-		elevator.removePassengers(passengersAtDest);
+		// add as freezers first, so they keep their ride state
 		elevator.addFreezers(passengersAtDest);
+		elevator.removePassengers(passengersAtDest);
 
 		handleLeavingPassengers();
 
-		elevator.getPassengers()
-				.stream()
-				.filter(entity -> !entity.isInsideVehicle())
-				.forEach(this::refreshVelocity);
+		deviations.forEach((passenger, deviation) -> {
+			// pushed passengers already got a new velocity
+			if (elevator.getPassengers().contains(passenger) && !pushbacks.containsKey(passenger)) {
+				setVelocity(passenger, deviation);
+			}
+		});
+		elevator.getFreezers()
+				.forEach(this::freezeEntity);
+		if (passengers.isEmpty()) {
+			completeLeg(tick);
+		}
+	}
+
+	/**
+	 * All passengers reached the next stop and wait there as freezers
+	 */
+	private void completeLeg(long tick) {
+		Floor stop = elevator.arriveAtNextStop();
+		if (elevator.hasStops()) {
+			arrive(stop, tick);
+		} else {
+			finish();
+		}
+	}
+
+	private void finish() {
+		restoreFloorBlocks();
 		elevator.getFreezers()
-				.forEach(ElevatorTask::freezeEntity);
+				.forEach(ElevatorExecutor::resetEntityPhysics);
+
+		plugin.removeActiveLift(elevator);
+		plugin.logDebug("Elevator finished");
+		RideAdmission.INSTANCE.processQueue();
+		CallQueue.INSTANCE.rideFinished(elevator);
+
+		if (soundTask != null) {
+			soundTask.cancel();
+		}
+		cancel();
+	}
+
+	/**
+	 * Let passengers get off at a stop before the last one. The car only waits, if someone gets off or on.
+	 */
+	private void arrive(Floor stop, long tick) {
+		List<Entity> alighting = elevator.getRidersTo(stop);
+		if (alighting.isEmpty() && !elevator.hasCallFrom(stop)) {
+			depart(tick);
+			return;
+		}
+		ElevatorExecutor.restoreFloorBlocks(elevator, stop);
+		alighting.forEach(ElevatorExecutor::resetEntityPhysics);
+		elevator.removeFreezers(alighting);
+		departureTick = tick + DWELL_TICKS;
+		scheduler.runAt(departureTick, this::check);
+		plugin.logDebug("Elevator stopped at level " + stop.getLevel() + ", " + alighting.size() + " passengers left");
+	}
+
+	private void depart(long tick) {
+		departureTick = -1;
+		Floor stop = elevator.getWaitingAt();
+		elevator.departFromStop()
+				.ifPresent(destination -> ElevatorExecutor.boardAtStop(elevator, stop, destination));
+		elevator.resumeRiders();
+		List<Floor> removedFloors = ElevatorExecutor.removeFloorBlocks(elevator, elevator.getFloorsToRemove(stop));
+		// the stop might lie beyond the destination of the ride's start, so further floors are removed now
+		ElevatorExecutor.holdEntitiesOnFloors(elevator, removedFloors);
+		BlockMutationQueue.INSTANCE.flush();
+		elevator.planLeg(stop.getFloorY() + 1, tick);
+		startLeg();
+	}
+
+	/**
+	 * Start moving all passengers to the next stop
+	 */
+	private void startLeg() {
+		double startY = elevator.getTrajectory().getStartY();
+		startOffsets.clear();
+		for (Entity passenger : elevator.getPassengers()) {
+			startOffsets.put(passenger, passenger.getLocation().getY() - startY);
+			if (!passenger.isInsideVehicle()) {
+				setVelocity(passenger, 0);
+			}
+		}
+		scheduleLeg();
 	}
 
 	private void timeout() {
-		plugin.logDebug("Elevator timeout after " + (elevator.getMaxEndTime() - elevator.getStartTime()) + " ms");
-		ElevatorExecutor.tpPassengersToFloor(elevator, elevator.getDestFloor());
+		plugin.logDebug("Elevator timeout after " + (elevator.getMaxEndTick() - elevator.getTrajectory()
+				.getStartTick()) + " ticks");
+		ElevatorExecutor.tpPassengersToFloor(elevator, elevator.getNextStop());
 		Set<Entity> passengers = elevator.getPassengers();
 		passengers.stream()
 				.filter(Player.class::isInstance)
@@ -87,17 +283,63 @@ public class ElevatorTask extends BukkitRunnable {
 		elevator.addFreezers(passengers);
 	}
 
-	private static void freezeEntity(Entity entity) {
+	/**
+	 * Stop the entity, unless it already stands still
+	 */
+	private void freezeEntity(Entity entity) {
 		if (entity.isInsideVehicle()) {
 			return;
 		}
-		entity.setVelocity(new Vector(0, 0, 0));
-		entity.setFallDistance(0.0F);
+		updateVelocity(entity, new Vector(0, 0, 0));
+	}
+
+	/**
+	 * Move with the planned velocity, corrected to close 'deviation' blocks until the next check
+	 */
+	private void setVelocity(Entity passenger, double deviation) {
+		double speed = elevator.getSpeed();
+		double correction = Math.max(-speed, Math.min(speed, deviation / CHECK_INTERVAL));
+		updateVelocity(passenger, new Vector(0, elevator.getTrajectory().getVelocity() + correction, 0));
+	}
+
+	/**
+	 * Velocity changes are sent to every player that sees the entity, so the velocity is only set if the entity does
+	 * not move with 'velocity' already
+	 */
+	private void updateVelocity(Entity entity, Vector velocity) {
+		if (entity.getFallDistance() != 0) {
+			entity.setFallDistance(0);
+		}
+		if (isMovingWith(entity, velocity)) {
+			return;
+		}
+		entity.setVelocity(velocity);
+		if (entity instanceof Player) {
+			sentVelocities.put(entity, new SentVelocity(velocity, entity.getLocation().getY(), scheduler.getTick()));
+		}
+		stats.countVelocityUpdate();
 	}
 
-	private void refreshVelocity(Entity passenger) {
-		passenger.setVelocity(new Vector(0, elevator.isGoingUp() ? elevator.getSpeed() : -elevator.getSpeed(), 0));
-		passenger.setFallDistance(0);
+	/**
+	 * The server tracks the motion of other entities, but players move on their own and their velocity on the server
+	 * stays at the last value that was set. So a player only moves with 'velocity', if it was sent last and the height
+	 * of the player changed accordingly since then.
+	 */
+	private boolean isMovingWith(Entity entity, Vector velocity) {
+		double tolerance = VELOCITY_TOLERANCE * VELOCITY_TOLERANCE;
+		if (!(entity instanceof Player)) {
+			return entity.getVelocity().distanceSquared(velocity) <= tolerance;
+		}
+		SentVelocity sent = sentVelocities.get(entity);
+		if (sent == null || sent.velocity.distanceSquared(velocity) > tolerance) {
+			return false;
+		}
+		long ticks = scheduler.getTick() - sent.tick;
+		if (ticks <= 0) {
+			return true;
+		}
+		double measured = (entity.getLocation().getY() - sent.y) / ticks;
+		return Math.abs(measured - velocity.getY()) <= VELOCITY_TOLERANCE;
 	}
 
 	private void handleLeavingPassengers() {
@@ -105,18 +347,26 @@ public class ElevatorTask extends BukkitRunnable {
 		List<Entity> leavers = passengers.stream()
 				.filter(elevator::isOutsideShaft)
 				.toList();
+		pushbacks.keySet()
+				.retainAll(leavers);
 		if (leavers.isEmpty()) {
 			return;
 		}
 		if (config.getPreventLeave()) {
 			Vector center = elevator.getShaftArea()
 					.getCenter();
-
 			for (Entity leaver : leavers) {
+				int checks = pushbacks.merge(leaver, 1, Integer::sum);
+				if (checks <= MAX_PUSHBACK_CHECKS && !leaver.isInsideVehicle()) {
+					pushBack(leaver, center);
+					continue;
+				}
+				pushbacks.remove(leaver);
 				Location location = leaver.getLocation();
 				location.setX(center.getX());
 				location.setZ(center.getZ());
 				leaver.teleport(location, PlayerTeleportEvent.TeleportCause.PLUGIN);
+				stats.countTeleport();
 			}
 		} else {
 			leavers.forEach(ElevatorExecutor::resetEntityPhysics);
@@ -125,16 +375,44 @@ public class ElevatorTask extends BukkitRunnable {
 		}
 	}
 
-	private boolean reachedDestination(Entity entity) {
-		return elevator.isGoingUp() ?
-				entity.getBoundingBox().getMinY() > elevator.getDestFloor().getFloorY() + 1:
-				entity.getBoundingBox().getMinY() < elevator.getDestFloor().getButtonY();
+	/**
+	 * Move a leaving passenger towards the center of the shaft, while it keeps moving with the car
+	 */
+	private void pushBack(Entity leaver, Vector center) {
+		Location location = leaver.getLocation();
+		Vector push = new Vector(center.getX() - location.getX(), 0, center.getZ() - location.getZ());
+		if (push.lengthSquared() > 0) {
+			push.normalize()
+					.multiply(PUSHBACK_SPEED);
+		}
+		push.setY(elevator.getTrajectory().getVelocity());
+		updateVelocity(leaver, push);
+	}
+
+	private boolean reachedDestination(double y) {
+		Floor stop = elevator.getNextStop();
+		return elevator.isGoingUp() ? y > stop.getFloorY() + 1 : y < stop.getButtonY();
 	}
 
 	private void restoreFloorBlocks() {
-		elevator.getBlockCache()
+		long start = System.nanoTime();
+		BlockMutationQueue mutationQueue = BlockMutationQueue.INSTANCE;
+		elevator.getRemovedBlocks()
 				.stream()
-				.sorted(Comparator.comparingInt(BlockState::getY))
-				.forEach(blockState -> blockState.update(true));
+				.sorted(Comparator.comparingInt(Block::getY))
+				.forEach(block -> mutationQueue.restore(block, () -> elevator.getSavedBlock(block)));
+		mutationQueue.flush();
+		stats.record(Phase.RESTORE, elevator.getShaft(), System.nanoTime() - start);
+	}
+
+	@RequiredArgsConstructor
+	private static class SentVelocity {
+
+		private final Vector velocity;
+		/**
+		 * Height of the player when the velocity was sent
+		 */
+		private final double y;
+		private final long tick;
 	}
 }
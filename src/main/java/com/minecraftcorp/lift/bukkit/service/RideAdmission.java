@@ -0,0 +1,204 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.service.stats.LiftStats;
+import com.minecraftcorp.lift.common.model.Messages;
+import java.util.*;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+/**
+ * Limits how many rides and passengers are active at the same time. Rides over the limits wait in a FIFO queue and
+ * start as soon as running rides have finished.
+ */
+public class RideAdmission extends ScheduledTask {
+
+	public static final RideAdmission INSTANCE = new RideAdmission();
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private static final Messages messages = Messages.INSTANCE;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private final Deque<QueuedRide> queue = new ArrayDeque<>();
+
+	private RideAdmission() {
+		super(20);
+	}
+
+	public void start() {
+		ElevatorScheduler.INSTANCE.schedule(this);
+	}
+
+	@Override
+	public void run() {
+		processQueue();
+	}
+
+	/**
+	 * @return true if the ride may start right away. Otherwise, it is queued and started by {@link #processQueue()}.
+	 * Rides queued in other worlds don't make the ride wait.
+	 */
+	public boolean admit(BukkitElevator elevator, List<Entity> passengers) {
+		int passengerCount = limitPassengerCount(passengers.size());
+		if (!isQueued(elevator.getWorld()) && hasGlobalCapacity(passengerCount) &&
+				hasWorldCapacity(elevator.getWorld(), passengerCount)) {
+			return true;
+		}
+		enqueue(elevator, passengers, passengerCount);
+		return false;
+	}
+
+	/**
+	 * Start queued rides in order, as long as the limits allow it. A ride that only exceeds the limits of its own
+	 * world does not block rides in other worlds.
+	 */
+	public void processQueue() {
+		if (queue.isEmpty()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Iterator<QueuedRide> iterator = queue.iterator();
+		while (iterator.hasNext()) {
+			QueuedRide ride = iterator.next();
+			if (now > ride.maxWaitTime) {
+				iterator.remove();
+				ride.sendMessage(messages.getLiftBusy());
+				plugin.logDebug("Queued elevator timed out at " + ride.elevator.getBase().getLocation());
+				continue;
+			}
+			if (!hasGlobalCapacity(ride.passengerCount)) {
+				break;
+			}
+			if (!hasWorldCapacity(ride.elevator.getWorld(), ride.passengerCount)) {
+				continue;
+			}
+			iterator.remove();
+			ElevatorExecutor.runAdmittedElevator(ride.elevator);
+		}
+		notifyPositions();
+	}
+
+	public int getQueueSize() {
+		return queue.size();
+	}
+
+	/**
+	 * @return the number of passengers a ride may take, if 'candidates' entities want to ride
+	 */
+	public int limitPassengerCount(int candidates) {
+		int limit = config.getMaxPassengersPerRide();
+		return limit > 0 ? Math.min(candidates, limit) : candidates;
+	}
+
+	private void enqueue(BukkitElevator elevator, List<Entity> passengers, int passengerCount) {
+		List<Player> players = passengers.stream()
+				.filter(Player.class::isInstance)
+				.map(Player.class::cast)
+				.toList();
+		Optional<QueuedRide> queued = queue.stream()
+				.filter(ride -> isSameRide(ride.elevator, elevator))
+				.findFirst();
+		if (queued.isPresent()) {
+			// keep position in queue, but use the most recent floor selection
+			QueuedRide ride = queued.get();
+			ride.elevator = elevator;
+			ride.passengerCount = passengerCount;
+			ride.players = players;
+			ride.notifiedPosition = 0;
+			notifyPositions();
+			return;
+		}
+		Integer maxQueuedRides = config.getMaxQueuedRides();
+		if (maxQueuedRides > 0 && queue.size() >= maxQueuedRides) {
+			players.forEach(player -> player.sendMessage(messages.getLiftBusy()));
+			plugin.logDebug("Elevator queue is full");
+			return;
+		}
+		long maxWaitTime = System.currentTimeMillis() + config.getSecondsUntilQueueTimeout() * 1000L;
+		queue.add(new QueuedRide(elevator, passengerCount, players, maxWaitTime));
+		LiftStats.INSTANCE.countQueuedRide();
+		plugin.logDebug("Queued elevator at " + elevator.getBase().getLocation() + " (" + queue.size() + " waiting)");
+		notifyPositions();
+	}
+
+	private void notifyPositions() {
+		int position = 0;
+		for (QueuedRide ride : queue) {
+			position++;
+			if (ride.notifiedPosition != position) {
+				ride.notifiedPosition = position;
+				ride.sendMessage(messages.getRideQueued() + " " + position);
+			}
+		}
+	}
+
+	private boolean isQueued(World world) {
+		return queue.stream()
+				.anyMatch(ride -> ride.elevator.getWorld().equals(world));
+	}
+
+	private static boolean isSameRide(BukkitElevator queued, BukkitElevator elevator) {
+		return queued.getStartFloor().getFloorY() == elevator.getStartFloor().getFloorY() &&
+				queued.getBaseBlocks().equals(elevator.getBaseBlocks());
+	}
+
+	private static boolean hasGlobalCapacity(int passengerCount) {
+		Set<BukkitElevator> activeLifts = plugin.getActiveLifts();
+		int passengers = activeLifts.stream()
+				.mapToInt(lift -> lift.getPassengers().size())
+				.sum();
+		return isBelowLimit(config.getMaxRides(), config.getMaxPassengers(), activeLifts.size(), passengers,
+				passengerCount);
+	}
+
+	private static boolean hasWorldCapacity(World world, int passengerCount) {
+		int rides = 0;
+		int passengers = 0;
+		for (BukkitElevator lift : plugin.getActiveLifts()) {
+			if (lift.getWorld().equals(world)) {
+				rides++;
+				passengers += lift.getPassengers().size();
+			}
+		}
+		return isBelowLimit(config.getMaxRidesPerWorld(), config.getMaxPassengersPerWorld(), rides, passengers,
+				passengerCount);
+	}
+
+	/**
+	 * A limit of 0 disables the check. Without any active ride, a ride is always admitted, so that rides with more
+	 * passengers than the passenger limit don't wait forever.
+	 */
+	private static boolean isBelowLimit(int maxRides, int maxPassengers, int rides, int passengers,
+			int additionalPassengers) {
+		if (rides == 0) {
+			return true;
+		}
+		if (maxRides > 0 && rides >= maxRides) {
+			return false;
+		}
+		return maxPassengers <= 0 || passengers + additionalPassengers <= maxPassengers;
+	}
+
+	private static class QueuedRide {
+
+		private BukkitElevator elevator;
+		private int passengerCount;
+		private List<Player> players;
+		private final long maxWaitTime;
+		private int notifiedPosition;
+
+		private QueuedRide(BukkitElevator elevator, int passengerCount, List<Player> players, long maxWaitTime) {
+			this.elevator = elevator;
+			this.passengerCount = passengerCount;
+			this.players = players;
+			this.maxWaitTime = maxWaitTime;
+		}
+
+		private void sendMessage(String message) {
+			players.stream()
+					.filter(Player::isOnline)
+					.forEach(player -> player.sendMessage(message));
+		}
+	}
+}
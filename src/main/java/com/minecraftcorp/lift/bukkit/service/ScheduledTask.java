@@ -0,0 +1,31 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Repeating task that is run by the {@link ElevatorScheduler} instead of an own Bukkit task
+ */
+@Getter
+public abstract class ScheduledTask implements Runnable {
+
+	/**
+	 * Ticks between two runs
+	 */
+	private final int period;
+	/**
+	 * Task runs in ticks where tick % period == phase
+	 */
+	@Setter(AccessLevel.PACKAGE)
+	private int phase;
+	private boolean cancelled;
+
+	protected ScheduledTask(int period) {
+		this.period = period;
+	}
+
+	public void cancel() {
+		cancelled = true;
+	}
+}
@@ -0,0 +1,196 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.Shaft;
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.util.*;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Remembers scanned shafts, so that clicking a known shaft does not need a full scan. A shaft is dropped as soon as
+ * a block change is reported that might affect its structure. Shafts are also kept in the {@link ShaftRegistry}, so
+ * that they are still known after a restart.
+ */
+public class ShaftCache {
+
+	public static final ShaftCache INSTANCE = new ShaftCache();
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final ShaftRegistry registry = ShaftRegistry.INSTANCE;
+	private final Map<UUID, Map<Long, List<Shaft>>> shaftsByColumn = new HashMap<>();
+	private final List<PendingScan> pendingScans = new ArrayList<>();
+
+	private ShaftCache() {
+	}
+
+	public Optional<Shaft> get(Block block) {
+		Optional<Shaft> cached = getShaftsInColumn(block.getWorld().getUID(), block).stream()
+				.filter(shaft -> shaft.contains(block.getX(), block.getY(), block.getZ()))
+				.findFirst();
+		if (cached.isPresent()) {
+			return cached;
+		}
+		Optional<Shaft> stored = registry.find(block);
+		stored.ifPresent(this::addToColumns);
+		return stored;
+	}
+
+	public void put(Shaft shaft) {
+		// a shaft might have been scanned twice at the same time
+		Block base = shaft.getBaseBlocks().iterator().next();
+		getShaftsInColumn(shaft.getWorld().getUID(), base).stream()
+				.filter(cached -> cached.getMinY() == shaft.getMinY() && cached.isInColumns(base.getX(), base.getZ()))
+				.toList()
+				.forEach(this::invalidate);
+		addToColumns(shaft);
+		registry.put(shaft);
+	}
+
+	private void addToColumns(Shaft shaft) {
+		Map<Long, List<Shaft>> columns = shaftsByColumn.computeIfAbsent(shaft.getWorld().getUID(),
+				uuid -> new HashMap<>());
+		shaft.getWatchedColumns()
+				.forEach(column -> columns.computeIfAbsent(column, key -> new ArrayList<>(1)).add(shaft));
+	}
+
+	/**
+	 * Drop all shafts whose structure might be affected by a change of the given block
+	 */
+	public void invalidate(Block block) {
+		UUID worldId = block.getWorld().getUID();
+		List<Shaft> shafts = getShaftsInColumn(worldId, block);
+		if (isUnknown(worldId, block, shafts)) {
+			return;
+		}
+		registry.invalidate(block, null);
+		markPendingScans(worldId, block, null);
+		if (shafts.isEmpty()) {
+			return;
+		}
+		List<Shaft> affected = shafts.stream()
+				.filter(shaft -> shaft.isAffectedBy(block))
+				.toList();
+		affected.forEach(this::invalidate);
+	}
+
+	/**
+	 * Like {@link #invalidate(Block)}, but ignores changes that were caused from within the same shaft, like a
+	 * pressed button or removed floor blocks during a ride.
+	 */
+	public void invalidate(Block block, Block source) {
+		UUID worldId = block.getWorld().getUID();
+		List<Shaft> shafts = getShaftsInColumn(worldId, block);
+		if (isUnknown(worldId, block, shafts)) {
+			return;
+		}
+		registry.invalidate(block, source);
+		markPendingScans(worldId, block, source);
+		if (shafts.isEmpty()) {
+			return;
+		}
+		List<Shaft> affected = shafts.stream()
+				.filter(shaft -> shaft.isAffectedBy(block))
+				.filter(shaft -> !shaft.contains(source.getX(), source.getY(), source.getZ()))
+				.toList();
+		affected.forEach(this::invalidate);
+	}
+
+	/**
+	 * Block changes are reported very often, e.g. by physics events, so changes outside of cached, stored and
+	 * pending shafts are rejected first
+	 */
+	private boolean isUnknown(UUID worldId, Block block, List<Shaft> shaftsInColumn) {
+		return shaftsInColumn.isEmpty() && pendingScans.isEmpty() && !registry.hasShaftsInChunk(worldId, block);
+	}
+
+	public void invalidate(Shaft shaft) {
+		registry.remove(shaft);
+		ShaftOccupancy.INSTANCE.untrack(shaft);
+		Map<Long, List<Shaft>> columns = shaftsByColumn.get(shaft.getWorld().getUID());
+		if (columns == null) {
+			return;
+		}
+		for (Long column : shaft.getWatchedColumns()) {
+			List<Shaft> shafts = columns.get(column);
+			if (shafts == null) {
+				continue;
+			}
+			shafts.remove(shaft);
+			if (shafts.isEmpty()) {
+				columns.remove(column);
+			}
+		}
+		plugin.logDebug("Invalidated cached shaft at " + shaft.getBaseBlocks().iterator().next().getLocation());
+	}
+
+	/**
+	 * Record block changes in the columns of 'baseBlocks' until {@link #finishScan(PendingScan)}, because a scan off
+	 * the main thread does not see them
+	 */
+	PendingScan startScan(Collection<Block> baseBlocks) {
+		PendingScan scan = new PendingScan(baseBlocks);
+		pendingScans.add(scan);
+		return scan;
+	}
+
+	/**
+	 * @return false if a block changed in the columns of the scan since it started, so that its result is outdated
+	 */
+	boolean finishScan(PendingScan scan) {
+		pendingScans.remove(scan);
+		return !scan.changed;
+	}
+
+	private void markPendingScans(UUID worldId, Block block, Block source) {
+		if (pendingScans.isEmpty()) {
+			return;
+		}
+		for (PendingScan scan : pendingScans) {
+			// like for cached shafts, changes caused from within the shaft, like a pressed button, are ignored
+			if (scan.isAffectedBy(worldId, block) && (source == null || !scan.isAffectedBy(worldId, source))) {
+				scan.changed = true;
+			}
+		}
+	}
+
+	public void invalidateWorld(World world) {
+		shaftsByColumn.remove(world.getUID());
+		ShaftOccupancy.INSTANCE.untrackWorld(world);
+	}
+
+	public void clear() {
+		shaftsByColumn.clear();
+		ShaftOccupancy.INSTANCE.clear();
+	}
+
+	private List<Shaft> getShaftsInColumn(UUID worldId, Block block) {
+		Map<Long, List<Shaft>> columns = shaftsByColumn.get(worldId);
+		if (columns == null) {
+			return Collections.emptyList();
+		}
+		return columns.getOrDefault(Calculator.toColumnKey(block.getX(), block.getZ()), Collections.emptyList());
+	}
+
+	static class PendingScan {
+
+		private final UUID worldId;
+		/**
+		 * Columns of the base blocks and next to them, because those might extend the base area
+		 */
+		private final Set<Long> columns = new HashSet<>();
+		private boolean changed;
+
+		private PendingScan(Collection<Block> baseBlocks) {
+			worldId = baseBlocks.iterator().next().getWorld().getUID();
+			for (Block base : baseBlocks) {
+				columns.add(Calculator.toColumnKey(base.getX(), base.getZ()));
+				Shaft.NEIGHBOR_FACES.forEach(face -> columns.add(Calculator.toColumnKey(base.getX() + face.getModX(),
+						base.getZ() + face.getModZ())));
+			}
+		}
+
+		private boolean isAffectedBy(UUID worldId, Block block) {
+			return this.worldId.equals(worldId) && columns.contains(Calculator.toColumnKey(block.getX(), block.getZ()));
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.model.Shaft;
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.util.*;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+/**
+ * Knows the players in and next to recently used shafts, so that a ride can find its passengers without querying
+ * the world for entities. The players of a shaft are searched once at its first ride and are updated from player
+ * movement afterwards. Only players are tracked, because Bukkit reports no movement of other entities.
+ */
+public class ShaftOccupancy {
+
+	public static final ShaftOccupancy INSTANCE = new ShaftOccupancy();
+	/**
+	 * Least recently used shafts are no longer tracked, once more shafts are used
+	 */
+	private static final int MAX_TRACKED_SHAFTS = 64;
+	/**
+	 * Blocks below the base in which a player's bounding box may reach into the shaft
+	 */
+	private static final int MARGIN_BELOW = 2;
+	private final Map<Shaft, Occupants> occupantsByShaft = new LinkedHashMap<>(16, 0.75F, true);
+	private final Map<UUID, Map<Long, List<Occupants>>> occupantsByColumn = new HashMap<>();
+
+	private ShaftOccupancy() {
+	}
+
+	/**
+	 * Get all players that might be within the shaft of 'elevator'. Players that are not in the shaft anymore may
+	 * be included, so callers have to check the positions of the returned players.
+	 */
+	public Collection<Player> getPlayers(BukkitElevator elevator) {
+		Shaft shaft = elevator.getShaft();
+		Occupants occupants = occupantsByShaft.get(shaft);
+		if (occupants == null) {
+			occupants = track(elevator);
+		}
+		World world = shaft.getWorld();
+		occupants.players.removeIf(player -> !player.isOnline() || !world.equals(player.getWorld()));
+		return Collections.unmodifiableSet(occupants.players);
+	}
+
+	/**
+	 * Update the occupants of tracked shafts after a player moved to another block
+	 *
+	 * @param from previous location, or null if the player just appeared at 'to'
+	 */
+	public void move(Player player, Location from, Location to) {
+		if (occupantsByShaft.isEmpty()) {
+			return;
+		}
+		if (from != null) {
+			getOccupants(from).stream()
+					.filter(occupants -> !occupants.isNear(to))
+					.forEach(occupants -> occupants.players.remove(player));
+		}
+		if (to != null) {
+			getOccupants(to).stream()
+					.filter(occupants -> occupants.isNear(to))
+					.forEach(occupants -> occupants.players.add(player));
+		}
+	}
+
+	public void remove(Player player) {
+		occupantsByShaft.values()
+				.forEach(occupants -> occupants.players.remove(player));
+	}
+
+	public void untrack(Shaft shaft) {
+		Occupants occupants = occupantsByShaft.remove(shaft);
+		if (occupants == null) {
+			return;
+		}
+		Map<Long, List<Occupants>> columns = occupantsByColumn.get(shaft.getWorld().getUID());
+		if (columns == null) {
+			return;
+		}
+		for (Long column : occupants.columns) {
+			List<Occupants> tracked = columns.get(column);
+			if (tracked == null) {
+				continue;
+			}
+			tracked.remove(occupants);
+			if (tracked.isEmpty()) {
+				columns.remove(column);
+			}
+		}
+	}
+
+	public void untrackWorld(World world) {
+		occupantsByShaft.keySet()
+				.removeIf(shaft -> shaft.getWorld().equals(world));
+		occupantsByColumn.remove(world.getUID());
+	}
+
+	public void clear() {
+		occupantsByShaft.clear();
+		occupantsByColumn.clear();
+	}
+
+	private Occupants track(BukkitElevator elevator) {
+		if (occupantsByShaft.size() >= MAX_TRACKED_SHAFTS) {
+			untrack(occupantsByShaft.keySet().iterator().next());
+		}
+		Shaft shaft = elevator.getShaft();
+		Occupants occupants = new Occupants(shaft);
+		elevator.getWorld()
+				.getNearbyEntities(elevator.getShaftArea().clone().expand(1, MARGIN_BELOW, 1),
+						entity -> entity instanceof Player)
+				.stream()
+				.filter(player -> occupants.isNear(player.getLocation()))
+				.forEach(player -> occupants.players.add((Player) player));
+		occupantsByShaft.put(shaft, occupants);
+		Map<Long, List<Occupants>> columns = occupantsByColumn.computeIfAbsent(shaft.getWorld().getUID(),
+				uuid -> new HashMap<>());
+		occupants.columns.forEach(column -> columns.computeIfAbsent(column, key -> new ArrayList<>(1))
+				.add(occupants));
+		return occupants;
+	}
+
+	private List<Occupants> getOccupants(Location location) {
+		World world = location.getWorld();
+		if (world == null) {
+			return Collections.emptyList();
+		}
+		Map<Long, List<Occupants>> columns = occupantsByColumn.get(world.getUID());
+		if (columns == null) {
+			return Collections.emptyList();
+		}
+		return columns.getOrDefault(Calculator.toColumnKey(location.getBlockX(), location.getBlockZ()),
+				Collections.emptyList());
+	}
+
+	private static class Occupants {
+
+		private final Shaft shaft;
+		/**
+		 * Columns of the shaft and around it, because a player's bounding box may reach into the shaft from there
+		 */
+		private final Set<Long> columns = new HashSet<>();
+		private final Set<Player> players = new HashSet<>();
+
+		private Occupants(Shaft shaft) {
+			this.shaft = shaft;
+			for (Block base : shaft.getBaseBlocks()) {
+				for (int dx = -1; dx <= 1; dx++) {
+					for (int dz = -1; dz <= 1; dz++) {
+						columns.add(Calculator.toColumnKey(base.getX() + dx, base.getZ() + dz));
+					}
+				}
+			}
+		}
+
+		private boolean isNear(Location location) {
+			if (location == null || !shaft.getWorld().equals(location.getWorld())) {
+				return false;
+			}
+			int y = location.getBlockY();
+			return y >= shaft.getMinY() - MARGIN_BELOW && y <= shaft.getMaxY() &&
+					columns.contains(Calculator.toColumnKey(location.getBlockX(), location.getBlockZ()));
+		}
+	}
+}
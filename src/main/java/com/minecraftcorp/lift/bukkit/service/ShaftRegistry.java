@@ -0,0 +1,649 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.bukkit.model.Footprint;
+import com.minecraftcorp.lift.bukkit.model.Shaft;
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Stores scanned shafts in shafts.&lt;generation&gt;.dat, so that shafts are known after a restart without scanning
+ * them again. The newest file is memory-mapped when it is opened, and stored shafts are only decoded from the mapping
+ * and checked against the world when one of their blocks is clicked. As the plugin might have missed changes, e.g. while the server was stopped, shafts
+ * are stored with a hash of their base and button blocks and of the blocks at the height of each floor. Changes are
+ * appended by a background thread, and the file is compacted once most of its records are outdated. As stored
+ * shafts still refer to the mapping, compaction writes the next generation of the file, and older generations are
+ * deleted as soon as they are no longer mapped.
+ * <p>
+ * The file starts with a header: magic, format version and the scan fingerprint of the config. Each following record
+ * consists of its type, the length of its payload, the payload and a CRC32 of the payload. A payload starts with the
+ * key of its shaft: world, y of the base blocks and the first column of the footprint.
+ */
+public class ShaftRegistry {
+
+	public static final ShaftRegistry INSTANCE = new ShaftRegistry();
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final String FILE_PREFIX = "shafts.";
+	private static final String FILE_SUFFIX = ".dat";
+	private static final int MAGIC = 0x4C494654;
+	private static final int FORMAT_VERSION = 3;
+	private static final int HEADER_SIZE = 12;
+	private static final int KEY_SIZE = 28;
+	private static final byte PUT = 1;
+	private static final byte REMOVE = 2;
+	/**
+	 * The file is not compacted while it has fewer records, even if most of them are outdated
+	 */
+	private static final int MIN_RECORDS_TO_COMPACT = 256;
+	private final Map<Key, Entry> entries = new HashMap<>();
+	private final Map<UUID, Map<Long, List<Entry>>> entriesByChunk = new HashMap<>();
+	private ExecutorService writer;
+	private Path folder;
+	/**
+	 * Generation of the newest file
+	 */
+	private int generation;
+	private int fingerprint;
+	/**
+	 * Number of records in the file, including outdated ones
+	 */
+	private int records;
+	/**
+	 * File that changes are appended to. Only used by the writer thread, once it has been loaded.
+	 */
+	private Path writeFile;
+	/**
+	 * Only used by the writer thread
+	 */
+	private FileChannel channel;
+
+	private ShaftRegistry() {
+	}
+
+	/**
+	 * Open or close the registry, depending on the current config. Stored shafts are dropped, if the config changed
+	 * in a way that affects scans.
+	 */
+	public void update() {
+		if (!config.getPersistShafts()) {
+			close();
+			return;
+		}
+		int currentFingerprint = config.getScanFingerprint();
+		if (writer != null) {
+			if (currentFingerprint != fingerprint) {
+				fingerprint = currentFingerprint;
+				clearEntries();
+				compact();
+				plugin.logDebug("Dropped stored shafts, because the config changed");
+			}
+			return;
+		}
+		fingerprint = currentFingerprint;
+		folder = plugin.getDataFolder()
+				.toPath();
+		writer = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Lift shaft registry");
+			thread.setDaemon(true);
+			return thread;
+		});
+		load();
+	}
+
+	/**
+	 * Write all pending changes and close the file
+	 */
+	public void close() {
+		if (writer == null) {
+			return;
+		}
+		writer.execute(this::closeChannel);
+		writer.shutdown();
+		try {
+			if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+				plugin.logWarn("Could not store all shafts in time");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread()
+					.interrupt();
+		}
+		writer = null;
+		clearEntries();
+	}
+
+	/**
+	 * Find a stored shaft that contains the block. The shaft is dropped, if its base, button or floor blocks changed
+	 * or its base area was extended.
+	 */
+	public Optional<Shaft> find(Block block) {
+		int x = block.getX();
+		int y = block.getY();
+		int z = block.getZ();
+		List<Entry> candidates = getEntriesInChunk(block.getWorld().getUID(), x, z).stream()
+				.filter(entry -> entry.contains(x, y, z, 0))
+				.toList();
+		for (Entry entry : candidates) {
+			Optional<Shaft> shaft = decode(entry, block.getWorld());
+			if (shaft.isEmpty()) {
+				plugin.logDebug("Stored shaft at " + entry.minX + " " + entry.key.minY + " " + entry.minZ + " changed");
+				remove(entry.key);
+				continue;
+			}
+			if (shaft.get()
+					.isInColumns(x, z)) {
+				plugin.logDebug("Using stored shaft");
+				return shaft;
+			}
+		}
+		return Optional.empty();
+	}
+
+	public void put(Shaft shaft) {
+		if (writer == null) {
+			return;
+		}
+		ByteBuffer record = encode(shaft);
+		Entry entry = readEntry(record);
+		removeEntry(entry.key);
+		addEntry(entry);
+		append(record);
+	}
+
+	public void remove(Shaft shaft) {
+		if (writer == null) {
+			return;
+		}
+		remove(Key.of(shaft));
+	}
+
+	/**
+	 * Drop stored shafts that might be affected by a change of the given block. Only the bounds of the shafts are
+	 * checked, as stored shafts are not decoded yet.
+	 *
+	 * @param source block that caused the change, if changes from within the same shaft should be ignored
+	 */
+	public void invalidate(Block block, Block source) {
+		if (writer == null) {
+			return;
+		}
+		int x = block.getX();
+		int y = block.getY();
+		int z = block.getZ();
+		List<Entry> inChunk = getEntriesInChunk(block.getWorld().getUID(), x, z);
+		if (inChunk.isEmpty()) {
+			return;
+		}
+		List<Entry> affected = inChunk.stream()
+				.filter(entry -> entry.contains(x, y, z, 1))
+				.filter(entry -> source == null || !entry.contains(source.getX(), source.getY(), source.getZ(), 0))
+				.toList();
+		affected.forEach(entry -> remove(entry.key));
+	}
+
+	/**
+	 * Whether stored shafts lie in the chunk of the block. Stored shafts are not decoded.
+	 */
+	public boolean hasShaftsInChunk(UUID world, Block block) {
+		return !getEntriesInChunk(world, block.getX(), block.getZ()).isEmpty();
+	}
+
+	private void remove(Key key) {
+		if (!removeEntry(key)) {
+			return;
+		}
+		ByteBuffer payload = ByteBuffer.allocate(KEY_SIZE);
+		writeKey(payload, key);
+		append(frame(REMOVE, payload.flip()));
+	}
+
+	private void load() {
+		Optional<Path> newest = findNewestFile();
+		if (newest.isEmpty()) {
+			compact();
+			return;
+		}
+		Path file = newest.get();
+		writeFile = file;
+		boolean complete;
+		// the mapping stays valid after the channel is closed
+		try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+			complete = readRecords(file, readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size()));
+		} catch (IOException e) {
+			plugin.logWarn("Could not read " + file.getFileName() + ": " + e.getMessage());
+			complete = false;
+		}
+		plugin.logDebug("Loaded " + entries.size() + " stored shafts");
+		writer.execute(() -> deleteOlderFiles(file));
+		if (!complete || needsCompaction()) {
+			compact();
+		}
+	}
+
+	/**
+	 * Find the file of the highest generation and remember its generation
+	 */
+	private Optional<Path> findNewestFile() {
+		generation = 0;
+		Path newest = null;
+		for (Path path : listFiles()) {
+			int fileGeneration = getGeneration(path);
+			if (fileGeneration > generation) {
+				generation = fileGeneration;
+				newest = path;
+			}
+		}
+		return Optional.ofNullable(newest);
+	}
+
+	/**
+	 * Delete all files except 'current'. Files that are still mapped might not be deleted on some systems, so they
+	 * are deleted later.
+	 */
+	private void deleteOlderFiles(Path current) {
+		for (Path path : listFiles()) {
+			if (path.equals(current)) {
+				continue;
+			}
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				plugin.logDebug("Could not delete " + path.getFileName() + " yet: " + e.getMessage());
+			}
+		}
+	}
+
+	private List<Path> listFiles() {
+		if (!Files.isDirectory(folder)) {
+			return Collections.emptyList();
+		}
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+			stream.forEach(path -> {
+				if (getGeneration(path) > 0) {
+					files.add(path);
+				}
+			});
+		} catch (IOException e) {
+			plugin.logWarn("Could not list stored shafts: " + e.getMessage());
+		}
+		return files;
+	}
+
+	/**
+	 * @return generation from the name of the file, or 0 if it is not a file of the registry
+	 */
+	private static int getGeneration(Path path) {
+		String name = path.getFileName()
+				.toString();
+		try {
+			return Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+		} catch (NumberFormatException | IndexOutOfBoundsException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return false if the file has to be rewritten, because it is outdated or its end is damaged
+	 */
+	private boolean readRecords(Path file, ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+			plugin.logWarn(file.getFileName() + " has an unknown format and will be replaced");
+			return false;
+		}
+		if (buffer.getInt() != fingerprint) {
+			plugin.logDebug("Dropped stored shafts, because the config changed");
+			return false;
+		}
+		while (buffer.hasRemaining()) {
+			int start = buffer.position();
+			if (buffer.remaining() < 5) {
+				return damaged(file, start);
+			}
+			byte type = buffer.get();
+			int length = buffer.getInt();
+			if (length < KEY_SIZE || buffer.remaining() < length + 4) {
+				return damaged(file, start);
+			}
+			ByteBuffer payload = buffer.slice(buffer.position(), length);
+			buffer.position(buffer.position() + length);
+			if (buffer.getInt() != crc(payload)) {
+				return damaged(file, start);
+			}
+			records++;
+			if (type == PUT) {
+				Entry entry = readEntry(buffer.slice(start, buffer.position() - start));
+				removeEntry(entry.key);
+				addEntry(entry);
+			} else {
+				removeEntry(readKey(payload.duplicate()));
+			}
+		}
+		return true;
+	}
+
+	private static boolean damaged(Path file, int position) {
+		plugin.logWarn(file.getFileName() + " is damaged at byte " + position + ". Shafts after it are dropped.");
+		return false;
+	}
+
+	private void append(ByteBuffer record) {
+		ByteBuffer copy = record.duplicate();
+		writer.execute(() -> writeRecord(copy));
+		records++;
+		if (needsCompaction()) {
+			compact();
+		}
+	}
+
+	private boolean needsCompaction() {
+		return records >= MIN_RECORDS_TO_COMPACT && records > 2 * entries.size();
+	}
+
+	/**
+	 * Write the next generation of the file, which only contains current shafts
+	 */
+	private void compact() {
+		List<ByteBuffer> current = entries.values()
+				.stream()
+				.map(entry -> entry.record.duplicate())
+				.toList();
+		int currentFingerprint = fingerprint;
+		generation++;
+		Path file = folder.resolve(FILE_PREFIX + generation + FILE_SUFFIX);
+		writer.execute(() -> rewrite(current, currentFingerprint, file));
+		records = current.size();
+	}
+
+	private void writeRecord(ByteBuffer record) {
+		if (writeFile == null) {
+			return;
+		}
+		try {
+			if (channel == null) {
+				channel = FileChannel.open(writeFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			}
+			writeFully(channel, record);
+		} catch (IOException e) {
+			plugin.logWarn("Could not store shaft in " + writeFile.getFileName() + ": " + e.getMessage());
+		}
+	}
+
+	private void rewrite(List<ByteBuffer> current, int fileFingerprint, Path file) {
+		closeChannel();
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			Files.createDirectories(file.getParent());
+			try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				writeFully(out, ByteBuffer.allocate(HEADER_SIZE)
+						.putInt(MAGIC)
+						.putInt(FORMAT_VERSION)
+						.putInt(fileFingerprint)
+						.flip());
+				for (ByteBuffer record : current) {
+					writeFully(out, record);
+				}
+				out.force(false);
+			}
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			plugin.logWarn("Could not compact stored shafts into " + file.getFileName() + ": " + e.getMessage());
+			return;
+		}
+		writeFile = file;
+		deleteOlderFiles(file);
+	}
+
+	private void closeChannel() {
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			plugin.logWarn("Could not close " + writeFile.getFileName() + ": " + e.getMessage());
+		}
+		channel = null;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private void addEntry(Entry entry) {
+		entries.put(entry.key, entry);
+		Map<Long, List<Entry>> chunks = entriesByChunk.computeIfAbsent(entry.key.world, uuid -> new HashMap<>());
+		entry.getChunks()
+				.forEach(chunk -> chunks.computeIfAbsent(chunk, key -> new ArrayList<>(1)).add(entry));
+	}
+
+	private boolean removeEntry(Key key) {
+		Entry entry = entries.remove(key);
+		if (entry == null) {
+			return false;
+		}
+		Map<Long, List<Entry>> chunks = entriesByChunk.get(key.world);
+		for (Long chunk : entry.getChunks()) {
+			List<Entry> chunkEntries = chunks.get(chunk);
+			chunkEntries.remove(entry);
+			if (chunkEntries.isEmpty()) {
+				chunks.remove(chunk);
+			}
+		}
+		return true;
+	}
+
+	private void clearEntries() {
+		entries.clear();
+		entriesByChunk.clear();
+		records = 0;
+	}
+
+	private List<Entry> getEntriesInChunk(UUID world, int x, int z) {
+		Map<Long, List<Entry>> chunks = entriesByChunk.get(world);
+		if (chunks == null) {
+			return Collections.emptyList();
+		}
+		return chunks.getOrDefault(Calculator.toColumnKey(x >> 4, z >> 4), Collections.emptyList());
+	}
+
+	/**
+	 * PUT payload: key, max y, structure hash, bounds, base columns and for each floor the y of its buttons and the
+	 * indices of the base columns that have a button
+	 */
+	private static ByteBuffer encode(Shaft shaft) {
+		List<Block> bases = new ArrayList<>(shaft.getBaseBlocks());
+		Map<Long, Integer> baseIndices = new HashMap<>();
+		for (int i = 0; i < bases.size(); i++) {
+			baseIndices.put(Calculator.toColumnKey(bases.get(i).getX(), bases.get(i).getZ()), i);
+		}
+		List<List<Block>> floors = shaft.getFloorButtons();
+		int size = KEY_SIZE + 28 + bases.size() * 8 + 4 + floors.stream()
+				.mapToInt(buttons -> 8 + buttons.size() * 4)
+				.sum();
+		ByteBuffer payload = ByteBuffer.allocate(size);
+		writeKey(payload, Key.of(shaft));
+		Footprint footprint = shaft.getFootprint();
+		payload.putInt(shaft.getMaxY())
+				.putInt(shaft.computeStructureHash())
+				.putInt(footprint.getMinX())
+				.putInt(footprint.getMinZ())
+				.putInt(footprint.getMaxX())
+				.putInt(footprint.getMaxZ())
+				.putInt(bases.size());
+		bases.forEach(base -> payload.putInt(base.getX())
+				.putInt(base.getZ()));
+		payload.putInt(floors.size());
+		for (List<Block> buttons : floors) {
+			payload.putInt(buttons.get(0).getY())
+					.putInt(buttons.size());
+			buttons.forEach(button -> payload.putInt(baseIndices.get(Calculator.toColumnKey(button.getX(),
+					button.getZ()))));
+		}
+		return frame(PUT, payload.flip());
+	}
+
+	/**
+	 * @return the shaft, if its base, button and floor blocks are still the same as when it was stored
+	 */
+	private static Optional<Shaft> decode(Entry entry, World world) {
+		try {
+			ByteBuffer payload = entry.getPayload();
+			payload.position(KEY_SIZE);
+			int maxY = payload.getInt();
+			int structureHash = payload.getInt();
+			payload.position(payload.position() + 16);
+			List<Block> bases = new ArrayList<>();
+			int baseCount = payload.getInt();
+			for (int i = 0; i < baseCount; i++) {
+				bases.add(world.getBlockAt(payload.getInt(), entry.key.minY, payload.getInt()));
+			}
+			List<List<Block>> floorButtons = new ArrayList<>();
+			int floorCount = payload.getInt();
+			for (int i = 0; i < floorCount; i++) {
+				int buttonY = payload.getInt();
+				int buttonCount = payload.getInt();
+				List<Block> buttons = new ArrayList<>(buttonCount);
+				for (int j = 0; j < buttonCount; j++) {
+					Block base = bases.get(payload.getInt());
+					buttons.add(world.getBlockAt(base.getX(), buttonY, base.getZ()));
+				}
+				floorButtons.add(buttons);
+			}
+			Shaft shaft = new Shaft(new HashSet<>(bases), floorButtons, maxY);
+			if (shaft.computeStructureHash() != structureHash || isBaseExtended(shaft)) {
+				return Optional.empty();
+			}
+			return Optional.of(shaft);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Whether a base block was added next to the base area, which the structure hash does not cover
+	 */
+	private static boolean isBaseExtended(Shaft shaft) {
+		Footprint footprint = shaft.getFootprint();
+		return shaft.getBaseBlocks()
+				.stream()
+				.flatMap(base -> Shaft.NEIGHBOR_FACES.stream()
+						.map(base::getRelative))
+				.filter(neighbor -> !footprint.contains(neighbor.getX(), neighbor.getZ()))
+				.anyMatch(config::isBaseBlock);
+	}
+
+	private static Entry readEntry(ByteBuffer record) {
+		ByteBuffer payload = record.slice(5, record.getInt(1));
+		Key key = readKey(payload);
+		payload.getInt();
+		payload.getInt();
+		return new Entry(key, record.asReadOnlyBuffer(), payload.getInt(), payload.getInt(), payload.getInt(),
+				payload.getInt(), payload.getInt(KEY_SIZE));
+	}
+
+	private static ByteBuffer frame(byte type, ByteBuffer payload) {
+		ByteBuffer record = ByteBuffer.allocate(payload.remaining() + 9);
+		record.put(type)
+				.putInt(payload.remaining())
+				.putInt(5 + payload.remaining(), crc(payload))
+				.put(payload);
+		return record.position(0);
+	}
+
+	private static int crc(ByteBuffer payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload.duplicate());
+		return (int) crc.getValue();
+	}
+
+	private static void writeKey(ByteBuffer payload, Key key) {
+		payload.putLong(key.world.getMostSignificantBits())
+				.putLong(key.world.getLeastSignificantBits())
+				.putInt(key.minY)
+				.putLong(key.column);
+	}
+
+	private static Key readKey(ByteBuffer payload) {
+		return new Key(new UUID(payload.getLong(), payload.getLong()), payload.getInt(), payload.getLong());
+	}
+
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static class Key {
+
+		private final UUID world;
+		private final int minY;
+		/**
+		 * First column of the footprint. Base blocks belong to a single shaft, so it identifies the shaft.
+		 */
+		private final long column;
+
+		private static Key of(Shaft shaft) {
+			return new Key(shaft.getWorld()
+					.getUID(), shaft.getMinY(), shaft.getFootprint()
+					.getColumns()[0]);
+		}
+	}
+
+	@RequiredArgsConstructor
+	private static class Entry {
+
+		private final Key key;
+		/**
+		 * Whole record as it is stored in the file
+		 */
+		private final ByteBuffer record;
+		private final int minX;
+		private final int minZ;
+		private final int maxX;
+		private final int maxZ;
+		private final int maxY;
+
+		private ByteBuffer getPayload() {
+			return record.slice(5, record.getInt(1));
+		}
+
+		/**
+		 * Whether the block is within the bounds of the shaft, extended horizontally by 'margin'
+		 */
+		private boolean contains(int x, int y, int z, int margin) {
+			return y >= key.minY && y <= maxY && x >= minX - margin && x <= maxX + margin && z >= minZ - margin &&
+					z <= maxZ + margin;
+		}
+
+		/**
+		 * Chunks of the bounds, extended by one block, as changes next to the base might extend it
+		 */
+		private List<Long> getChunks() {
+			List<Long> chunks = new ArrayList<>();
+			for (int chunkX = (minX - 1) >> 4; chunkX <= (maxX + 1) >> 4; chunkX++) {
+				for (int chunkZ = (minZ - 1) >> 4; chunkZ <= (maxZ + 1) >> 4; chunkZ++) {
+					chunks.add(Calculator.toColumnKey(chunkX, chunkZ));
+				}
+			}
+			return chunks;
+		}
+	}
+}
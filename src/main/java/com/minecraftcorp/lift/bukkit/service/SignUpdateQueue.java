@@ -0,0 +1,77 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.FloorSignData;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.bukkit.Location;
+import org.bukkit.block.Sign;
+import org.bukkit.block.sign.Side;
+import org.bukkit.block.sign.SignSide;
+
+/**
+ * Sign text changes of lifts are buffered here and written once at the end of the tick by the
+ * {@link ElevatorScheduler}. Only the last write per sign location is sent, and writes that don't change the text
+ * are not sent at all.
+ */
+public class SignUpdateQueue {
+
+	public static final SignUpdateQueue INSTANCE = new SignUpdateQueue();
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private final Map<Location, Sign> dirty = new LinkedHashMap<>();
+
+	private SignUpdateQueue() {
+	}
+
+	/**
+	 * Set the lines of a sign side and its floor data. The snapshot 'sign' reflects the changes right away, the world
+	 * gets them when the queue is flushed.
+	 */
+	public void write(Sign sign, Side side, String[] lines, FloorSignData data) {
+		Location location = sign.getLocation();
+		Sign pending = dirty.get(location);
+		// compare with what the world will have after the next flush
+		Sign current = pending != null ? pending : sign;
+		boolean changed = !Arrays.equals(readLines(current, side), lines) ||
+				!FloorSignData.read(current).equals(Optional.of(data));
+		if (!FloorSignData.read(sign).equals(Optional.of(data))) {
+			data.write(sign);
+		}
+		SignSide signSide = sign.getSide(side);
+		for (int i = 0; i < lines.length; i++) {
+			if (!signSide.getLine(i).equals(lines[i])) {
+				signSide.setLine(i, lines[i]);
+			}
+		}
+		if (changed) {
+			dirty.put(location, sign);
+		}
+	}
+
+	/**
+	 * Write all dirty signs to the world
+	 */
+	public void flush() {
+		if (dirty.isEmpty()) {
+			return;
+		}
+		for (Sign sign : dirty.values()) {
+			// also saves the persistent data of the sign
+			if (!sign.update()) {
+				plugin.logWarn("Could not update sign of elevator floor at " + sign.getLocation());
+			}
+		}
+		dirty.clear();
+	}
+
+	private static String[] readLines(Sign sign, Side side) {
+		SignSide signSide = sign.getSide(side);
+		String[] lines = new String[4];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = signSide.getLine(i);
+		}
+		return lines;
+	}
+}
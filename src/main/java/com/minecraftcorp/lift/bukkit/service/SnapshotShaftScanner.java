@@ -0,0 +1,113 @@
+package com.minecraftcorp.lift.bukkit.service;
+
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.common.util.Calculator;
+import java.util.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+/**
+ * Detects the floors of a shaft in chunk snapshots. Snapshots are captured on the main thread, while {@link #scan()}
+ * may run on any thread.
+ */
+public class SnapshotShaftScanner {
+
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private final Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+	private final int[] xs;
+	private final int[] zs;
+	private final int baseY;
+	private final int worldMinY;
+	private final int worldMaxY;
+	private final int maxHeight;
+
+	/**
+	 * Must be called on the main thread
+	 *
+	 * @param baseBlocks base blocks in the order that is used for {@link ScannedFloor#getColumns()}
+	 */
+	public SnapshotShaftScanner(List<Block> baseBlocks) {
+		World world = baseBlocks.get(0).getWorld();
+		xs = new int[baseBlocks.size()];
+		zs = new int[baseBlocks.size()];
+		for (int i = 0; i < baseBlocks.size(); i++) {
+			Block base = baseBlocks.get(i);
+			xs[i] = base.getX();
+			zs[i] = base.getZ();
+			snapshots.computeIfAbsent(getChunkKey(xs[i], zs[i]), key -> world.getChunkAt(base.getX() >> 4,
+					base.getZ() >> 4).getChunkSnapshot(false, false, false));
+		}
+		baseY = baseBlocks.get(0).getY();
+		worldMinY = world.getMinHeight();
+		worldMaxY = world.getMaxHeight();
+		maxHeight = Math.min(config.getMaxHeight(), worldMaxY);
+	}
+
+	/**
+	 * Scan all floors above the base blocks. Does not access the world, so it can run off the main thread.
+	 */
+	public ScanResult scan() {
+		List<ScannedFloor> floors = new ArrayList<>();
+		int y;
+		scan:
+		for (y = baseY + 1; y < maxHeight; y++) {
+			List<Integer> buttons = new ArrayList<>();
+			for (int i = 0; i < xs.length; i++) {
+				if (!config.isValidShaftBlock(getType(xs[i], y, zs[i]))) {
+					break scan;
+				}
+				if (isValidLiftStructureFromButton(xs[i], y, zs[i])) {
+					buttons.add(i);
+				}
+			}
+			if (!buttons.isEmpty()) {
+				floors.add(new ScannedFloor(y, buttons));
+			}
+		}
+		return new ScanResult(floors, Math.min(y, config.getMaxHeight() - 1));
+	}
+
+	private boolean isValidLiftStructureFromButton(int x, int y, int z) {
+		Material floor = getType(x, y - 2, z);
+		return config.isButton(getType(x, y, z)) && config.isSign(getType(x, y + 1, z)) &&
+				(config.isFloorBlock(floor) || config.isBaseBlock(floor));
+	}
+
+	private Material getType(int x, int y, int z) {
+		if (y < worldMinY || y >= worldMaxY) {
+			return Material.AIR;
+		}
+		return snapshots.get(getChunkKey(x, z))
+				.getBlockType(x & 15, y, z & 15);
+	}
+
+	private static long getChunkKey(int x, int z) {
+		return Calculator.toColumnKey(x >> 4, z >> 4);
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	public static class ScanResult {
+
+		private final List<ScannedFloor> floors;
+		/**
+		 * Y of the block that ended the floor scan
+		 */
+		private final int maxY;
+	}
+
+	@Getter
+	@RequiredArgsConstructor
+	public static class ScannedFloor {
+
+		private final int buttonY;
+		/**
+		 * Indexes of the base blocks whose column has a button on this floor
+		 */
+		private final List<Integer> columns;
+	}
+}
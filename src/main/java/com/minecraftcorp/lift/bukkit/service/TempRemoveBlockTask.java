@@ -1,7 +1,6 @@
 package com.minecraftcorp.lift.bukkit.service;
 
 import com.minecraftcorp.lift.bukkit.LiftPlugin;
-import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.scheduler.BukkitRunnable;
@@ -14,12 +13,14 @@ public class TempRemoveBlockTask extends BukkitRunnable {
 	public TempRemoveBlockTask(LiftPlugin plugin, Block block, int restoreDelay) {
 		this.block = block;
 		this.blockData = block.getBlockData();
-		block.setType(Material.AIR);
+		BlockMutationQueue.INSTANCE.remove(block, state -> {});
 		runTaskLater(plugin, restoreDelay);
 	}
 
 	@Override
 	public void run() {
-		block.setBlockData(blockData);
+		BlockMutationQueue mutationQueue = BlockMutationQueue.INSTANCE;
+		mutationQueue.setBlockData(block, blockData);
+		mutationQueue.flush();
 	}
 }
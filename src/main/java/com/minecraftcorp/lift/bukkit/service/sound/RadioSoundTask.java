@@ -1,96 +1,72 @@
 package com.minecraftcorp.lift.bukkit.service.sound;
 
 import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
-import com.minecraftcorp.lift.common.exception.ConfigurationException;
-import com.xxmicloxx.NoteBlockAPI.model.FadeType;
-import com.xxmicloxx.NoteBlockAPI.model.Playlist;
-import com.xxmicloxx.NoteBlockAPI.model.Song;
-import com.xxmicloxx.NoteBlockAPI.songplayer.Fade;
-import com.xxmicloxx.NoteBlockAPI.songplayer.RadioSongPlayer;
-import com.xxmicloxx.NoteBlockAPI.utils.NBSDecoder;
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
 
+/**
+ * Lets the players of a ride listen to the {@link ShaftRadio} of its shaft
+ */
 public class RadioSoundTask extends SoundTask {
 
-	private static final Fade RADIO_FADE = new Fade(FadeType.LINEAR, 20);
-	private static Song[] songs;
-	private final RadioSongPlayer radio;
+	private final ShaftRadio radio;
+	private final Set<UUID> listeners = new HashSet<>();
 
 	RadioSoundTask(BukkitElevator elevator) {
 		super(elevator, 10);
-		if (songs == null) {
-			reload();
-		}
-		radio = new RadioSongPlayer(new Playlist(songs));
-		radio.setVolume((byte) volume);
-		radio.setRandom(true);
-		startRadio(elevator.getPassengers());
+		radio = ShaftRadio.get(elevator.getShaft());
+		radio.attach();
+		updateListeners();
 	}
 
 	@Override
 	public void run() {
 		super.run();
-		List<UUID> uuidsInElevator = elevator.getInvolvedEntities()
-				.map(Entity::getUniqueId)
-				.toList();
-		radio.getPlayerUUIDs()
-				.stream()
-				.filter(uuid -> !uuidsInElevator.contains(uuid))
-				.forEach(radio::removePlayer);
+		updateListeners();
 	}
 
 	@Override
-	public void cancel() throws IllegalStateException {
+	public void cancel() {
+		if (isCancelled()) {
+			return;
+		}
 		super.cancel();
 		plugin.logDebug("Cancelled SoundTask");
-		stopRadio(elevator.getPassengers());
-	}
-
-	private void startRadio(Set<Entity> entities) {
-		filterPlayers(entities).forEach(radio::addPlayer);
-		radio.setPlaying(true, RADIO_FADE);
-		int randomIndex = ThreadLocalRandom.current()
-				.nextInt(radio.getPlaylist().getSongList().size());
-
-		radio.playSong(randomIndex);
-		plugin.logDebug("Playing " + radio.getSong().getPath().getName());
+		listeners.forEach(radio::removeListener);
+		listeners.clear();
+		radio.detach();
 	}
 
-	private void stopRadio(Set<Entity> entities) {
-		filterPlayers(entities).forEach(radio::removePlayer);
-		radio.setPlaying(false, RADIO_FADE);
+	/**
+	 * Add players that joined the ride and remove those that left it
+	 */
+	private void updateListeners() {
+		Map<UUID, Player> players = filterPlayers(elevator.getInvolvedEntities().toList())
+				.collect(Collectors.toMap(Entity::getUniqueId, player -> player));
+		listeners.removeIf(uuid -> {
+			if (players.containsKey(uuid)) {
+				return false;
+			}
+			radio.removeListener(uuid);
+			return true;
+		});
+		players.forEach((uuid, player) -> {
+			if (listeners.add(uuid)) {
+				radio.addListener(player);
+			}
+		});
 	}
 
 	public static void reload() {
-		songs = getMusicFiles()
-				.stream()
-				.map(NBSDecoder::parse)
-				.toArray(Song[]::new);
+		SongLibrary.INSTANCE.reload();
+		// idle radios might play songs that were removed
+		ShaftRadio.destroyIdle();
 	}
 
-	private static List<File> getMusicFiles() {
-		Path songDir = plugin.getDataFolder().toPath()
-				.resolve("music");
-		if (!Files.isDirectory(songDir)) {
-			try {
-				Files.createDirectories(songDir);
-			} catch (IOException e) {
-				throw new ConfigurationException("Unable to create music directory");
-			}
-			plugin.logInfo("Created " + songDir + ". You can drop your .nbs files there.");
-		}
-		try {
-			return Arrays.stream(Objects.requireNonNull(songDir.toFile()
-					.listFiles((file, name) -> name.endsWith(".nbs"))))
-					.toList();
-		} catch (Exception e) {
-			throw new ConfigurationException("Unable to find music files in " + songDir, e);
-		}
+	public static void shutdown() {
+		ShaftRadio.destroyAll();
+		SongLibrary.INSTANCE.shutdown();
 	}
 }
@@ -0,0 +1,181 @@
+package com.minecraftcorp.lift.bukkit.service.sound;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.bukkit.model.Shaft;
+import com.minecraftcorp.lift.bukkit.service.ElevatorScheduler;
+import com.minecraftcorp.lift.bukkit.service.ScheduledTask;
+import com.xxmicloxx.NoteBlockAPI.model.FadeType;
+import com.xxmicloxx.NoteBlockAPI.model.Playlist;
+import com.xxmicloxx.NoteBlockAPI.model.RepeatMode;
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+import com.xxmicloxx.NoteBlockAPI.songplayer.Fade;
+import com.xxmicloxx.NoteBlockAPI.songplayer.RadioSongPlayer;
+import java.util.*;
+import org.bukkit.entity.Player;
+
+/**
+ * Long-lived radio of a music shaft. Rides of the same shaft share it, so that a song continues across back-to-back
+ * rides. Between rides it is paused. Every ride adds a random song to its playlist, which repeats in random order.
+ * Once the playlist is full, a new song replaces the oldest one.
+ */
+class ShaftRadio {
+
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private static final Fade RADIO_FADE = new Fade(FadeType.LINEAR, 20);
+	/**
+	 * Paused radios are destroyed after this time
+	 */
+	private static final long MAX_IDLE_MILLIS = 5 * 60 * 1000;
+	/**
+	 * Ticks between two checks for idle radios
+	 */
+	private static final int SWEEP_PERIOD = 20 * 30;
+	/**
+	 * Songs of a playlist stay decoded outside the {@link SongLibrary} cache, so their number is limited
+	 */
+	private static final int MAX_PLAYLIST_SONGS = 8;
+	private static final Map<String, ShaftRadio> radios = new HashMap<>();
+	private static ScheduledTask sweeper;
+	private final String shaftLabel;
+	private final Set<UUID> listeners = new HashSet<>();
+	private RadioSongPlayer radio;
+	private int rides;
+	private long idleSince = System.currentTimeMillis();
+
+	private ShaftRadio(String shaftLabel) {
+		this.shaftLabel = shaftLabel;
+	}
+
+	static ShaftRadio get(Shaft shaft) {
+		startSweeper();
+		return radios.computeIfAbsent(shaft.getLabel(), ShaftRadio::new);
+	}
+
+	/**
+	 * Destroy all radios that are not used by a ride at the moment
+	 */
+	static void destroyIdle() {
+		destroyIdle(0);
+	}
+
+	static void destroyAll() {
+		radios.values().forEach(ShaftRadio::destroy);
+		radios.clear();
+		if (sweeper != null) {
+			sweeper.cancel();
+			sweeper = null;
+		}
+	}
+
+	/**
+	 * Destroy idle radios from the scheduler, as long as there are radios at all
+	 */
+	private static void startSweeper() {
+		if (sweeper != null) {
+			return;
+		}
+		sweeper = new ScheduledTask(SWEEP_PERIOD) {
+			@Override
+			public void run() {
+				destroyIdle(MAX_IDLE_MILLIS);
+				if (radios.isEmpty()) {
+					cancel();
+					sweeper = null;
+				}
+			}
+		};
+		ElevatorScheduler.INSTANCE.schedule(sweeper);
+	}
+
+	private static void destroyIdle(long minIdleMillis) {
+		long now = System.currentTimeMillis();
+		radios.values().removeIf(radio -> {
+			if (radio.rides > 0 || now - radio.idleSince < minIdleMillis) {
+				return false;
+			}
+			radio.destroy();
+			return true;
+		});
+	}
+
+	void attach() {
+		rides++;
+		if (radio != null && rides == 1) {
+			radio.setPlaying(true, RADIO_FADE);
+		}
+		SongLibrary.INSTANCE.loadRandom()
+				.thenAccept(this::addSong);
+	}
+
+	void detach() {
+		rides--;
+		if (rides > 0) {
+			return;
+		}
+		idleSince = System.currentTimeMillis();
+		new ArrayList<>(listeners).forEach(this::removeListener);
+		if (radio != null) {
+			radio.setPlaying(false, RADIO_FADE);
+		}
+	}
+
+	void addListener(Player player) {
+		if (listeners.add(player.getUniqueId()) && radio != null) {
+			radio.addPlayer(player);
+		}
+	}
+
+	void removeListener(UUID uuid) {
+		if (listeners.remove(uuid) && radio != null) {
+			radio.removePlayer(uuid);
+		}
+	}
+
+	private void addSong(Song song) {
+		if (song == null) {
+			return;
+		}
+		if (radio != null) {
+			addToPlaylist(song);
+			return;
+		}
+		if (rides == 0) {
+			// ride finished before its song was decoded
+			return;
+		}
+		radio = new RadioSongPlayer(new Playlist(song));
+		radio.setVolume((byte) config.getSoundVolume().intValue());
+		radio.setRandom(true);
+		radio.setRepeatMode(RepeatMode.ALL);
+		radio.setAutoDestroy(false);
+		listeners.forEach(radio::addPlayer);
+		radio.setPlaying(true, RADIO_FADE);
+		plugin.logDebug("Playing " + song.getPath().getName() + " in " + shaftLabel);
+	}
+
+	private void addToPlaylist(Song song) {
+		Playlist playlist = radio.getPlaylist();
+		if (playlist.contains(song)) {
+			return;
+		}
+		if (playlist.getCount() >= MAX_PLAYLIST_SONGS) {
+			// songs are appended, so the first one that is not playing is the oldest
+			Song playing = radio.getSong();
+			playlist.getSongList()
+					.stream()
+					.filter(oldest -> oldest != playing)
+					.findFirst()
+					.ifPresent(playlist::remove);
+		}
+		playlist.add(song);
+	}
+
+	private void destroy() {
+		if (radio != null) {
+			radio.destroy();
+			radio = null;
+		}
+	}
+}
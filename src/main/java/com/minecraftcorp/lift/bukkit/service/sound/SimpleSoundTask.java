@@ -12,9 +12,10 @@ public class SimpleSoundTask extends SoundTask {
 	@Override
 	public void run() {
 		super.run();
-		filterPlayers(elevator.getPassengers()).forEach(player -> {
-			player.playSound(player.getLocation(), Sound.ENTITY_BOAT_PADDLE_LAND, config.relativeVolume(.8), .5F);
-			player.playSound(player.getLocation(), Sound.BLOCK_BEEHIVE_WORK, config.relativeVolume(.5), .5F);
-		});
+		playSound(elevator.getPassengers(), Sound.ENTITY_BOAT_PADDLE_LAND, .8, .5F);
+		// under load, only the main sound is played
+		if (SoundBudget.INSTANCE.isRelaxed()) {
+			playSound(elevator.getPassengers(), Sound.BLOCK_BEEHIVE_WORK, .5, .5F);
+		}
 	}
 }
@@ -0,0 +1,175 @@
+package com.minecraftcorp.lift.bukkit.service.sound;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.common.exception.ConfigurationException;
+import com.xxmicloxx.NoteBlockAPI.model.Song;
+import com.xxmicloxx.NoteBlockAPI.utils.NBSDecoder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+
+/**
+ * Index of the .nbs files in the music folder. A song is decoded in the background the first time it is played and
+ * kept in an LRU cache, whose size is limited by the size of the song files. Only accessed from the main thread.
+ */
+public class SongLibrary {
+
+	public static final SongLibrary INSTANCE = new SongLibrary();
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private final Executor mainThread = task -> Bukkit.getScheduler().runTask(plugin, task);
+	private final Map<SongFile, Song> cache = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<SongFile, CompletableFuture<Song>> decoding = new HashMap<>();
+	private List<SongFile> songFiles;
+	private ExecutorService decoder;
+	private long cachedBytes;
+
+	private SongLibrary() {
+	}
+
+	/**
+	 * Index the music folder again. Decoded songs stay cached as long as their file didn't change.
+	 */
+	public void reload() {
+		songFiles = findSongFiles();
+		Set<SongFile> current = new HashSet<>(songFiles);
+		cache.keySet().removeIf(file -> {
+			if (current.contains(file)) {
+				return false;
+			}
+			cachedBytes -= file.size;
+			return true;
+		});
+		evict();
+		plugin.logDebug("Indexed " + songFiles.size() + " songs, " + cache.size() + " are decoded");
+	}
+
+	public boolean isEmpty() {
+		return getSongFiles().isEmpty();
+	}
+
+	/**
+	 * @return a future, that completes on the main thread with a random song, or with null, if the song could not be
+	 * decoded
+	 */
+	public CompletableFuture<Song> loadRandom() {
+		List<SongFile> files = getSongFiles();
+		if (files.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return load(files.get(ThreadLocalRandom.current().nextInt(files.size())));
+	}
+
+	/**
+	 * Stop decoding, e.g. when the plugin gets disabled
+	 */
+	public void shutdown() {
+		if (decoder != null) {
+			decoder.shutdownNow();
+			decoder = null;
+		}
+		decoding.clear();
+	}
+
+	private CompletableFuture<Song> load(SongFile file) {
+		Song cached = cache.get(file);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		return decoding.computeIfAbsent(file, key -> CompletableFuture.supplyAsync(() -> NBSDecoder.parse(file.path),
+						getDecoder())
+				.handleAsync((song, throwable) -> {
+					decoding.remove(file);
+					if (song == null || throwable != null) {
+						plugin.logWarn("Could not decode " + file.path.getName());
+						return null;
+					}
+					// the file might have been removed by a reload in the meantime
+					if (songFiles.contains(file)) {
+						cache(file, song);
+					}
+					return song;
+				}, mainThread));
+	}
+
+	private void cache(SongFile file, Song song) {
+		cache.put(file, song);
+		cachedBytes += file.size;
+		evict();
+	}
+
+	/**
+	 * Drop the least recently played songs until the cache fits musicCacheMegabytes
+	 */
+	private void evict() {
+		long maxBytes = config.getMusicCacheMegabytes() * 1024L * 1024L;
+		Iterator<SongFile> iterator = cache.keySet().iterator();
+		while (cachedBytes > maxBytes && iterator.hasNext()) {
+			cachedBytes -= iterator.next().size;
+			iterator.remove();
+		}
+	}
+
+	private List<SongFile> getSongFiles() {
+		if (songFiles == null) {
+			reload();
+		}
+		return songFiles;
+	}
+
+	private ExecutorService getDecoder() {
+		if (decoder == null) {
+			int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+			decoder = Executors.newFixedThreadPool(threads, runnable -> {
+				Thread thread = new Thread(runnable, "Lift song decoder");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return decoder;
+	}
+
+	private static List<SongFile> findSongFiles() {
+		Path songDir = plugin.getDataFolder().toPath()
+				.resolve("music");
+		if (!Files.isDirectory(songDir)) {
+			try {
+				Files.createDirectories(songDir);
+			} catch (IOException e) {
+				throw new ConfigurationException("Unable to create music directory");
+			}
+			plugin.logInfo("Created " + songDir + ". You can drop your .nbs files there.");
+		}
+		try {
+			return Arrays.stream(Objects.requireNonNull(songDir.toFile()
+							.listFiles((file, name) -> name.endsWith(".nbs"))))
+					.map(file -> new SongFile(file, file.length(), file.lastModified()))
+					.toList();
+		} catch (Exception e) {
+			throw new ConfigurationException("Unable to find music files in " + songDir, e);
+		}
+	}
+
+	/**
+	 * A changed file has another size or modification time, so it doesn't match its old cache entry
+	 */
+	@EqualsAndHashCode
+	@RequiredArgsConstructor
+	private static class SongFile {
+
+		private final File path;
+		private final long size;
+		private final long lastModified;
+	}
+}
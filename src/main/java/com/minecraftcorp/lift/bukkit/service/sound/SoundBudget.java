@@ -0,0 +1,48 @@
+package com.minecraftcorp.lift.bukkit.service.sound;
+
+import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
+import com.minecraftcorp.lift.bukkit.service.ElevatorScheduler;
+
+/**
+ * Limits the sound packets of all lifts per tick to soundPacketsPerTick. Sounds over the limit are dropped.
+ */
+public class SoundBudget {
+
+	public static final SoundBudget INSTANCE = new SoundBudget();
+	private static final BukkitConfig config = BukkitConfig.INSTANCE;
+	private long tick = -1;
+	private int used;
+
+	private SoundBudget() {
+	}
+
+	/**
+	 * @return true if 'packets' may be sent in this tick
+	 */
+	public boolean tryAcquire(int packets) {
+		refresh();
+		int limit = config.getSoundPacketsPerTick();
+		if (limit > 0 && used + packets > limit) {
+			return false;
+		}
+		used += packets;
+		return true;
+	}
+
+	/**
+	 * @return true while less than half of the budget of this tick is used, so that optional sounds may be played
+	 */
+	public boolean isRelaxed() {
+		refresh();
+		int limit = config.getSoundPacketsPerTick();
+		return limit <= 0 || used * 2 < limit;
+	}
+
+	private void refresh() {
+		long now = ElevatorScheduler.INSTANCE.getTick();
+		if (now != tick) {
+			tick = now;
+			used = 0;
+		}
+	}
+}
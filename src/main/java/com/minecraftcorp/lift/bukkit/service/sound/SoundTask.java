@@ -3,18 +3,24 @@ package com.minecraftcorp.lift.bukkit.service.sound;
 import com.minecraftcorp.lift.bukkit.LiftPlugin;
 import com.minecraftcorp.lift.bukkit.model.BukkitConfig;
 import com.minecraftcorp.lift.bukkit.model.BukkitElevator;
+import com.minecraftcorp.lift.bukkit.service.ElevatorScheduler;
+import com.minecraftcorp.lift.bukkit.service.ScheduledTask;
 import java.util.Collection;
 import java.util.stream.Stream;
+import org.bukkit.Location;
 import org.bukkit.Sound;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
-public abstract class SoundTask extends BukkitRunnable {
+public abstract class SoundTask extends ScheduledTask {
 
 	protected static final BukkitConfig config = BukkitConfig.INSTANCE;
 	protected static final LiftPlugin plugin = LiftPlugin.INSTANCE;
 	protected static final int volume = config.getSoundVolume();
+	/**
+	 * Blocks in which a sound of volume 1 is sent to players
+	 */
+	private static final int HEARING_RANGE = 16;
 	protected final BukkitElevator elevator;
 
 	public static SoundTask create(BukkitElevator elevator) {
@@ -22,23 +28,62 @@ public abstract class SoundTask extends BukkitRunnable {
 	}
 
 	protected SoundTask(BukkitElevator elevator, int taskInterval) {
+		super(taskInterval);
 		this.elevator = elevator;
-		runTaskTimer(plugin, 0, taskInterval);
+		ElevatorScheduler.INSTANCE.schedule(this);
 		plugin.logDebug("Started " + getClass().getSimpleName());
 	}
 
 	@Override
 	public void run() {
-		if (System.currentTimeMillis() > elevator.getMaxEndTime()) {
+		if (ElevatorScheduler.INSTANCE.getTick() > elevator.getMaxEndTick()) {
 			cancel();
 		}
 	}
 
 	@Override
-	public synchronized void cancel() throws IllegalStateException {
+	public void cancel() {
+		if (isCancelled()) {
+			return;
+		}
 		super.cancel();
-		filterPlayers(elevator.getFreezers()).forEach(player -> player.playSound(player.getLocation(),
-				Sound.BLOCK_NOTE_BLOCK_BELL, config.relativeVolume(1), .5F));
+		playSound(elevator.getFreezers(), Sound.BLOCK_NOTE_BLOCK_BELL, 1, .5F);
+	}
+
+	/**
+	 * Play a sound for the players among 'listeners', within the {@link SoundBudget}. With positionalSound, a single
+	 * sound is played at the car, which is sent to all players in hearing range. If the budget does not cover all of
+	 * them, the sound is sent to as many listeners as the budget allows instead.
+	 */
+	protected void playSound(Collection<Entity> listeners, Sound sound, double volume, float pitch) {
+		SoundBudget budget = SoundBudget.INSTANCE;
+		float relativeVolume = config.relativeVolume(volume);
+		if (config.getPositionalSound()) {
+			if (filterPlayers(listeners).findAny().isEmpty()) {
+				return;
+			}
+			Location car = elevator.getCarLocation(ElevatorScheduler.INSTANCE.getTick());
+			Collection<Entity> hearers = getPlayersInHearingRange(car, relativeVolume);
+			if (budget.tryAcquire(hearers.size())) {
+				elevator.getWorld().playSound(car, sound, relativeVolume, pitch);
+				return;
+			}
+			filterPlayers(listeners).takeWhile(player -> budget.tryAcquire(1))
+					.forEach(player -> player.playSound(car, sound, relativeVolume, pitch));
+			return;
+		}
+		filterPlayers(listeners).takeWhile(player -> budget.tryAcquire(1))
+				.forEach(player -> player.playSound(player.getLocation(), sound, relativeVolume, pitch));
+	}
+
+	/**
+	 * Players to which the server sends a sound at 'location'. Sounds louder than 1 are heard from further away.
+	 */
+	private Collection<Entity> getPlayersInHearingRange(Location location, float volume) {
+		double range = Math.max(volume, 1) * HEARING_RANGE;
+		return elevator.getWorld()
+				.getNearbyEntities(location, range, range, range, entity -> entity instanceof Player &&
+						entity.getLocation().distanceSquared(location) <= range * range);
 	}
 
 	protected Stream<Player> filterPlayers(Collection<Entity> entities) {
@@ -52,4 +97,10 @@ public abstract class SoundTask extends BukkitRunnable {
 			RadioSoundTask.reload();
 		}
 	}
+
+	public static void shutdown() {
+		if (plugin.isNoteBlockAPIEnabled()) {
+			RadioSoundTask.shutdown();
+		}
+	}
 }
@@ -0,0 +1,52 @@
+package com.minecraftcorp.lift.bukkit.service.stats;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Durations in buckets of powers of two microseconds. Percentiles are estimated by the upper bound of their bucket.
+ */
+@Getter
+public class Histogram {
+
+	private static final int BUCKETS = 32;
+	@Getter(AccessLevel.NONE)
+	private final long[] buckets = new long[BUCKETS];
+	private long count;
+	private long totalNanos;
+	private long maxNanos;
+
+	public void record(long nanos) {
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+		buckets[getBucket(nanos)]++;
+	}
+
+	public long getMeanNanos() {
+		return count == 0 ? 0 : totalNanos / count;
+	}
+
+	/**
+	 * @param percentile from 0 to 100
+	 */
+	public long getPercentileNanos(double percentile) {
+		long rank = (long) Math.ceil(percentile / 100 * count);
+		long seen = 0;
+		for (int bucket = 0; bucket < BUCKETS; bucket++) {
+			seen += buckets[bucket];
+			if (seen >= rank && seen > 0) {
+				return Math.min(maxNanos, (1L << bucket) * 1000);
+			}
+		}
+		return maxNanos;
+	}
+
+	/**
+	 * Bucket 0 holds durations below 1 µs, bucket n durations from 2^(n-1) to 2^n µs
+	 */
+	private static int getBucket(long nanos) {
+		long micros = nanos / 1000;
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+	}
+}
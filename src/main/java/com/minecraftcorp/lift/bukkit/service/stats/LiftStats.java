@@ -0,0 +1,150 @@
+package com.minecraftcorp.lift.bukkit.service.stats;
+
+import com.minecraftcorp.lift.bukkit.LiftPlugin;
+import com.minecraftcorp.lift.bukkit.model.Shaft;
+import com.minecraftcorp.lift.bukkit.service.RideAdmission;
+import java.util.*;
+
+/**
+ * Always-on durations of the phases of lift rides, in total and per world and shaft. Only accessed from the main
+ * thread.
+ */
+public class LiftStats {
+
+	public static final LiftStats INSTANCE = new LiftStats();
+	/**
+	 * Shafts that weren't used for the longest time are dropped above this limit
+	 */
+	private static final int MAX_SHAFTS = 256;
+	private static final LiftPlugin plugin = LiftPlugin.INSTANCE;
+	private final Map<Phase, Histogram> total = new EnumMap<>(Phase.class);
+	private final Map<String, Map<Phase, Histogram>> byWorld = new HashMap<>();
+	private final Map<String, Map<Phase, Histogram>> byShaft = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Map<Phase, Histogram>> eldest) {
+			return size() > MAX_SHAFTS;
+		}
+	};
+	private long cachedScans;
+	private long queuedRides;
+	private long velocityUpdates;
+	private long teleports;
+	private long since = System.currentTimeMillis();
+
+	private LiftStats() {
+	}
+
+	public void record(Phase phase, long nanos) {
+		getHistogram(total, phase).record(nanos);
+	}
+
+	public void record(Phase phase, Shaft shaft, long nanos) {
+		record(phase, nanos);
+		getHistogram(byWorld.computeIfAbsent(shaft.getWorld().getName(), name -> new EnumMap<>(Phase.class)), phase)
+				.record(nanos);
+		getHistogram(byShaft.computeIfAbsent(shaft.getLabel(), name -> new EnumMap<>(Phase.class)), phase)
+				.record(nanos);
+	}
+
+	public void countCachedScan() {
+		cachedScans++;
+	}
+
+	public void countQueuedRide() {
+		queuedRides++;
+	}
+
+	/**
+	 * Count a velocity change of a riding entity, which is sent to all players that see it
+	 */
+	public void countVelocityUpdate() {
+		velocityUpdates++;
+	}
+
+	public void countTeleport() {
+		teleports++;
+	}
+
+	public void reset() {
+		total.clear();
+		byWorld.clear();
+		byShaft.clear();
+		cachedScans = 0;
+		queuedRides = 0;
+		velocityUpdates = 0;
+		teleports = 0;
+		since = System.currentTimeMillis();
+	}
+
+	public List<String> format() {
+		List<String> lines = new ArrayList<>();
+		lines.add("§6Lift stats of the last " + (System.currentTimeMillis() - since) / 1000 + " s");
+		lines.add("§7Active rides: §f" + plugin.getActiveLifts().size() + "§7, queued rides: §f" +
+				RideAdmission.INSTANCE.getQueueSize() + "§7 (" + queuedRides + " queued in total)" +
+				"§7, cached scans: §f" + cachedScans);
+		lines.add("§7Velocity updates: §f" + velocityUpdates + "§7, teleports: §f" + teleports);
+		lines.add("§7Phase: count, mean / p50 / p95 / max in ms");
+		for (Phase phase : Phase.values()) {
+			Histogram histogram = total.get(phase);
+			if (histogram != null) {
+				lines.add("§7" + phase.getDisplayName() + ": §f" + histogram.getCount() + ", " +
+						formatMillis(histogram.getMeanNanos()) + " / " +
+						formatMillis(histogram.getPercentileNanos(50)) + " / " +
+						formatMillis(histogram.getPercentileNanos(95)) + " / " +
+						formatMillis(histogram.getMaxNanos()));
+			}
+		}
+		return lines;
+	}
+
+	public List<String> formatWorlds() {
+		return formatBreakdown("world", byWorld, byWorld.size());
+	}
+
+	/**
+	 * @param limit number of shafts with the highest total time to show
+	 */
+	public List<String> formatShafts(int limit) {
+		return formatBreakdown("shaft", byShaft, limit);
+	}
+
+	private static List<String> formatBreakdown(String name, Map<String, Map<Phase, Histogram>> breakdown,
+			int limit) {
+		List<String> lines = new ArrayList<>();
+		lines.add("§6Total ms per " + name + " and phase (count)");
+		breakdown.entrySet()
+				.stream()
+				.sorted(Comparator.comparingLong((Map.Entry<String, Map<Phase, Histogram>> entry) ->
+						getTotalNanos(entry.getValue())).reversed())
+				.limit(limit)
+				.forEach(entry -> {
+					StringJoiner phases = new StringJoiner(", ");
+					entry.getValue().forEach((phase, histogram) -> phases.add(phase.getDisplayName() + " " +
+							formatMillis(histogram.getTotalNanos()) + " (" + histogram.getCount() + ")"));
+					lines.add("§7" + entry.getKey() + ": §f" + phases);
+				});
+		if (breakdown.isEmpty()) {
+			lines.add("§7No rides yet");
+		}
+		return lines;
+	}
+
+	/**
+	 * Server time spent for a world or shaft. Click to motion is latency, not server time.
+	 */
+	private static long getTotalNanos(Map<Phase, Histogram> histograms) {
+		return histograms.entrySet()
+				.stream()
+				.filter(entry -> entry.getKey() != Phase.CLICK_TO_MOTION)
+				.mapToLong(entry -> entry.getValue().getTotalNanos())
+				.sum();
+	}
+
+	private static String formatMillis(long nanos) {
+		return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+	}
+
+	private static Histogram getHistogram(Map<Phase, Histogram> histograms, Phase phase) {
+		return histograms.computeIfAbsent(phase, key -> new Histogram());
+	}
+}
@@ -0,0 +1,25 @@
+package com.minecraftcorp.lift.bukkit.service.stats;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum Phase {
+
+	SCAN("Shaft scan"),
+	ENTITY_DISCOVERY("Entity discovery"),
+	FLOOR_REMOVAL("Floor removal"),
+	RIDE_TICK("Ride tick"),
+	/**
+	 * All tasks of the {@link com.minecraftcorp.lift.bukkit.service.ElevatorScheduler} in one server tick
+	 */
+	SCHEDULER_TICK("Scheduler tick"),
+	RESTORE("Floor restore"),
+	/**
+	 * From clicking a button until the ride starts, including async scans and waiting for admission
+	 */
+	CLICK_TO_MOTION("Click to motion");
+
+	private final String displayName;
+}
@@ -18,6 +18,7 @@ import lombok.Getter;
 public abstract class Config {
 
 	protected Boolean debug;
+	protected Boolean watchConfig;
 	protected Integer maxLiftArea;
 	protected Integer maxHeight;
 	protected Integer minHeight;
@@ -30,6 +31,19 @@ public abstract class Config {
 	protected Integer secondsUntilTimeout;
 	protected Boolean soundEnabled;
 	protected Integer soundVolume;
+	protected Integer musicCacheMegabytes;
+	protected Boolean positionalSound;
+	protected Integer soundPacketsPerTick;
+	protected Boolean asyncScan;
+	protected Boolean persistShafts;
+	protected Integer blockUpdatesPerTick;
+	protected Integer maxRides;
+	protected Integer maxRidesPerWorld;
+	protected Integer maxPassengers;
+	protected Integer maxPassengersPerWorld;
+	protected Integer maxPassengersPerRide;
+	protected Integer maxQueuedRides;
+	protected Integer secondsUntilQueueTimeout;
 
 	public float relativeVolume(double volume) {
 		return (float) (volume * soundVolume / 100.0);
@@ -64,5 +78,18 @@ public abstract class Config {
 		if (soundVolume < 0 || soundVolume > 100) {
 			throw new ConfigurationException("soundVolume must have a value from 0 to 100");
 		}
+		if (soundPacketsPerTick < 0) {
+			throw new ConfigurationException("soundPacketsPerTick must not be negative. Use 0 for no limit");
+		}
+		if (blockUpdatesPerTick < 0) {
+			throw new ConfigurationException("blockUpdatesPerTick must not be negative. Use 0 for no limit");
+		}
+		if (musicCacheMegabytes < 0) {
+			throw new ConfigurationException("musicCacheMegabytes must not be negative");
+		}
+		if (maxRides < 0 || maxRidesPerWorld < 0 || maxPassengers < 0 || maxPassengersPerWorld < 0 ||
+				maxPassengersPerRide < 0 || maxQueuedRides < 0) {
+			throw new ConfigurationException("Ride and passenger limits must not be negative. Use 0 for no limit");
+		}
 	}
 }
\ No newline at end of file
@@ -3,9 +3,8 @@ package com.minecraftcorp.lift.common.model;
 import com.minecraftcorp.lift.common.exception.ElevatorChangeException;
 import com.minecraftcorp.lift.common.exception.ElevatorException;
 import com.minecraftcorp.lift.common.exception.ElevatorUsageException;
-import java.util.List;
-import java.util.Optional;
-import java.util.function.Predicate;
+import java.util.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -16,27 +15,64 @@ public abstract class Elevator {
 	private static final Messages messages = Messages.INSTANCE;
 
 	protected final List<Floor> floors;
+	/**
+	 * Floor of each level, index 0 is unused
+	 */
+	private final Floor[] floorsByLevel;
+	/**
+	 * Floors sorted by their button Y, for binary search in {@link #buttonYs}
+	 */
+	private final Floor[] floorsByY;
+	private final int[] buttonYs;
 	private final Floor startFloor;
+	/**
+	 * Last stop of the ride
+	 */
 	private Floor destFloor;
 	private FloorSign initialSign;
+	/**
+	 * Floors the ride still stops at, in order of travel. The first one is the floor the car moves to, the last one
+	 * is the destination floor.
+	 */
+	private final List<Floor> stops = new ArrayList<>();
+	/**
+	 * Destination of passengers that board at a stop, by the floor of their call
+	 */
+	@Getter(AccessLevel.NONE)
+	private final Map<Floor, Floor> boardingDestinations = new HashMap<>();
+	/**
+	 * Stop the car currently waits at, or null while it moves
+	 */
+	@Setter(AccessLevel.NONE)
+	private Floor waitingAt;
 
 	private final double speed;
-	private long startTime;
-	private long maxEndTime;
+	private Trajectory trajectory;
+	/**
+	 * Tick after which the ride times out
+	 */
+	private long maxEndTick;
 
 	public Elevator(List<Floor> floors, Floor startFloor, double speed, FloorSign initialSign) {
 		this.floors = floors;
 		this.startFloor = startFloor;
 		this.speed = speed;
 		this.initialSign = initialSign;
+		floorsByLevel = new Floor[floors.stream().mapToInt(Floor::getLevel).max().orElse(0) + 1];
+		floors.forEach(floor -> floorsByLevel[floor.getLevel()] = floor);
+		floorsByY = floors.stream()
+				.sorted(Comparator.comparingInt(Floor::getButtonY))
+				.toArray(Floor[]::new);
+		buttonYs = Arrays.stream(floorsByY)
+				.mapToInt(Floor::getButtonY)
+				.toArray();
 	}
 
 	public abstract Config getConfig();
 
 	public Optional<Floor> getFloorFromY(int buttonY) {
-		return floors.stream()
-				.filter(floor -> floor.getButtonY() == buttonY)
-				.findFirst();
+		int index = Arrays.binarySearch(buttonYs, buttonY);
+		return index >= 0 ? Optional.of(floorsByY[index]) : Optional.empty();
 	}
 
 	public boolean isGoingUp() {
@@ -47,44 +83,135 @@ public abstract class Elevator {
 		destFloor = getFloorByLevel(getInitialSign().readDestLevel());
 	}
 
+	/**
+	 * @return the floor above 'currentFloor' that is not 'exempt', wrapping around to the lowest floor
+	 */
 	public Optional<Floor> getNextFloor(Floor currentFloor, Floor exempt) {
-		if (floors.size() == 1) {
+		return getFloorInDirection(currentFloor, exempt, 1);
+	}
+
+	/**
+	 * @return the floor below 'currentFloor' that is not 'exempt', wrapping around to the highest floor
+	 */
+	public Optional<Floor> getPreviousFloor(Floor currentFloor, Floor exempt) {
+		return getFloorInDirection(currentFloor, exempt, -1);
+	}
+
+	private Optional<Floor> getFloorInDirection(Floor currentFloor, Floor exempt, int step) {
+		int count = floors.size();
+		if (count == 1) {
 			return Optional.empty();
 		}
-		int currentLevel = currentFloor.getLevel();
-		Floor next = currentLevel < floors.size() ? getFloorByLevel(currentLevel + 1) : getFloorByLevel(1);
-		if (next.equals(exempt)) {
-			return getNextFloor(next, exempt);
+		// levels are 1..count, so index = level - 1
+		int index = currentFloor.getLevel() - 1;
+		for (int i = 0; i < 2; i++) {
+			index = Math.floorMod(index + step, count);
+			Floor floor = getFloorByLevel(index + 1);
+			if (!floor.equals(exempt)) {
+				return Optional.of(floor);
+			}
 		}
-		return Optional.of(next);
+		return Optional.empty();
 	}
 
-	public Optional<Floor> getPreviousFloor(Floor currentFloor, Floor exempt) {
-		if (floors.size() == 1) {
-			return Optional.empty();
+	/**
+	 * Plan the ride of passengers standing on the start floor, starting at 'tick'
+	 */
+	public void initTimeMeasures(long tick) {
+		stops.clear();
+		stops.add(getDestFloor());
+		boardingDestinations.clear();
+		waitingAt = null;
+		planLeg(startFloor.getFloorY() + 1, tick);
+	}
+
+	/**
+	 * Plan the movement of the car from height 'startY' to the next stop, starting at 'tick'
+	 */
+	public void planLeg(double startY, long tick) {
+		trajectory = new Trajectory(startY, getNextStop().getFloorY() + 1, speed, tick);
+		maxEndTick = trajectory.getArrivalTick() + getConfig().getSecondsUntilTimeout() * 20L;
+	}
+
+	public Floor getNextStop() {
+		return stops.get(0);
+	}
+
+	public boolean hasStops() {
+		return !stops.isEmpty();
+	}
+
+	/**
+	 * The car reached its next stop and waits there
+	 *
+	 * @return the stop
+	 */
+	public Floor arriveAtNextStop() {
+		waitingAt = stops.remove(0);
+		return waitingAt;
+	}
+
+	/**
+	 * The car leaves the stop it waits at
+	 *
+	 * @return destination of the passengers that board at this stop, if there was a call from it
+	 */
+	public Optional<Floor> departFromStop() {
+		Floor stop = waitingAt;
+		waitingAt = null;
+		return Optional.ofNullable(boardingDestinations.remove(stop));
+	}
+
+	public boolean hasCallFrom(Floor floor) {
+		return boardingDestinations.containsKey(floor);
+	}
+
+	/**
+	 * Add a call from 'floor' to 'dest' to the ride, if it goes in the same direction and the car did not pass
+	 * 'floor' yet. The car stops at both floors, and the next stop is planned again if the car moves.
+	 *
+	 * @return false if the call has to wait until the ride has finished
+	 */
+	public boolean addCall(Floor floor, Floor dest, long tick) {
+		boolean up = isGoingUp();
+		if (up != floor.getLevel() < dest.getLevel()) {
+			return false;
+		}
+		if (floor != waitingAt) {
+			double carY = trajectory.getExpectedY(tick);
+			double floorY = floor.getFloorY() + 1;
+			if (up ? floorY <= carY : floorY >= carY) {
+				return false;
+			}
+			addStop(floor, up);
 		}
-		int currentLevel = currentFloor.getLevel();
-		Floor previous = currentLevel > 1 ? getFloorByLevel(currentLevel - 1) : getFloorByLevel(floors.size());
-		if (previous.equals(exempt)) {
-			return getPreviousFloor(previous, exempt);
+		addStop(dest, up);
+		boardingDestinations.put(floor, dest);
+		if (waitingAt == null && trajectory.getDestY() != getNextStop().getFloorY() + 1) {
+			planLeg(trajectory.getExpectedY(tick), tick);
 		}
-		return Optional.of(previous);
+		return true;
 	}
 
-	public void initTimeMeasures() {
-		startTime = System.currentTimeMillis();
-		long rideDuration = (long) (Math.abs(startFloor.getFloorY() - getDestFloor().getFloorY()) * 0.05 * 1000L / speed);
-		maxEndTime = startTime + rideDuration + getConfig().getSecondsUntilTimeout() * 1000;
+	private void addStop(Floor floor, boolean up) {
+		if (stops.contains(floor)) {
+			return;
+		}
+		int index = 0;
+		while (index < stops.size() && (up ? stops.get(index).getLevel() < floor.getLevel() :
+				stops.get(index).getLevel() > floor.getLevel())) {
+			index++;
+		}
+		stops.add(index, floor);
+		destFloor = stops.get(stops.size() - 1);
 	}
 
 	public Floor getFloorBySign(FloorSign floorSign) {
-		Optional<Floor> floor = floors.stream()
-				.filter(f -> f.getSigns().contains(floorSign))
-				.findFirst();
-		if (floor.isEmpty()) {
+		Floor floor = floorSign.getFloor();
+		if (floor == null || floor.getLevel() >= floorsByLevel.length || floorsByLevel[floor.getLevel()] != floor) {
 			throw new ElevatorChangeException("Could not find floor that belongs to clicked floor sign");
 		}
-		return floor.get();
+		return floor;
 	}
 
 	public Floor getFloorByLevel(int level) {
@@ -96,21 +223,28 @@ public abstract class Elevator {
 			}
 			return next.get();
 		}
-		Optional<Floor> floor = floors.stream()
-				.filter(f -> f.getLevel() == level)
-				.findFirst();
-		if (floor.isEmpty()) {
+		Floor floor = level >= 0 && level < floorsByLevel.length ? floorsByLevel[level] : null;
+		if (floor == null) {
 			throw new ElevatorUsageException(messages.getFloorNotExists() + level);
 		}
-		return floor.get();
+		return floor;
 	}
 
+	/**
+	 * @return floors above the lower and up to the upper one of start and destination floor, ordered by level
+	 */
 	public List<Floor> getFloorsToRemove() {
-		boolean goingUp = isGoingUp();
-		Predicate<Floor> select = floor -> goingUp ? floor.compareTo(startFloor) > 0 && floor.compareTo(destFloor) <= 0
-				: floor.compareTo(startFloor) <= 0 && floor.compareTo(destFloor) > 0;
-		return floors.stream()
-				.filter(select)
-				.toList();
+		return getFloorsToRemove(startFloor);
+	}
+
+	/**
+	 * Like {@link #getFloorsToRemove()}, but for the rest of the ride from the stop 'from'
+	 */
+	public List<Floor> getFloorsToRemove(Floor from) {
+		// floors are ordered by level, starting with level 1
+		int startLevel = from.getLevel();
+		int destLevel = destFloor.getLevel();
+		return Collections.unmodifiableList(floors.subList(Math.min(startLevel, destLevel),
+				Math.max(startLevel, destLevel)));
 	}
 }
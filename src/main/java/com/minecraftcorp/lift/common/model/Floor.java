@@ -4,23 +4,46 @@ import java.util.List;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Level and position of a floor are known from the shaft. Signs and name are read from the world when they are first
+ * needed, so that rides only read the floors they use.
+ */
 @Getter
 @RequiredArgsConstructor
-public class Floor implements Comparable<Floor> {
+public abstract class Floor implements Comparable<Floor> {
 
 	protected final int level;
-	protected final String name;
 	protected final int buttonY;
-	protected final List<FloorSign> signs;
+	private List<FloorSign> signs;
+	private String name;
 
 	public int getFloorY() {
 		return buttonY - 2;
 	}
 
+	public List<FloorSign> getSigns() {
+		if (signs == null) {
+			signs = loadSigns();
+			signs.forEach(sign -> sign.setFloor(this));
+		}
+		return signs;
+	}
+
+	public String getName() {
+		if (name == null) {
+			name = loadName();
+		}
+		return name;
+	}
+
 	public void updateSigns(Floor destination) {
-		signs.forEach(sign -> sign.updateSign(this, destination));
+		getSigns().forEach(sign -> sign.updateSign(this, destination));
 	}
 
+	protected abstract List<FloorSign> loadSigns();
+
+	protected abstract String loadName();
+
 	@Override
 	public int compareTo(Floor other) {
 		if (level == other.getLevel()) return 0;
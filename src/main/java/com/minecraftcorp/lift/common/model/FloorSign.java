@@ -15,10 +15,14 @@ public abstract class FloorSign {
 	public static final int LINE_DEST_LEVEL = 2;
 	public static final int LINE_DEST_NAME = 3;
 	private Elevator elevator;
+	private Floor floor;
 
 	public abstract void updateSign(Floor current, Floor dest);
 
-	public abstract boolean isValid();
+	/**
+	 * @return whether the sign holds readable data that was written for 'current' in its current shape
+	 */
+	public abstract boolean isValid(Floor current);
 
 	public abstract int readDestLevel();
 
@@ -17,4 +17,9 @@ public class Messages {
 	private String scrollSelectDisabled;
 	private String floorNotExists;
 	private String timeout;
+	private String rideQueued;
+	private String liftBusy;
+	private String liftFull;
+	private String liftStopping;
+	private String liftCalled;
 }
@@ -5,7 +5,8 @@ import org.bukkit.entity.Player;
 public enum Permission {
 
 	RELOAD("lift.reload", "§cYou have no permission to reload the plugin"),
-	CHANGE("lift.change", "§cYou have no permission to change the Lift sign");
+	CHANGE("lift.change", "§cYou have no permission to change the Lift sign"),
+	STATS("lift.stats", "§cYou have no permission to see lift stats");
 
 	private final String node;
 	private final String message;
@@ -0,0 +1,36 @@
+package com.minecraftcorp.lift.common.model;
+
+import lombok.Getter;
+
+/**
+ * Planned vertical movement of a ride at constant speed. Heights are in blocks, times in server ticks.
+ */
+@Getter
+public class Trajectory {
+
+	private final double startY;
+	private final double destY;
+	/**
+	 * Blocks per tick, negative when going down
+	 */
+	private final double velocity;
+	private final long startTick;
+	private final long arrivalTick;
+
+	public Trajectory(double startY, double destY, double speed, long startTick) {
+		this.startY = startY;
+		this.destY = destY;
+		this.startTick = startTick;
+		velocity = destY >= startY ? speed : -speed;
+		arrivalTick = startTick + (long) Math.ceil(Math.abs(destY - startY) / speed);
+	}
+
+	/**
+	 * @return the planned height at 'tick', which stays at the destination after arrival
+	 */
+	public double getExpectedY(long tick) {
+		double distance = Math.abs(destY - startY);
+		double travelled = Math.min(Math.max(tick - startTick, 0) * Math.abs(velocity), distance);
+		return velocity >= 0 ? startY + travelled : startY - travelled;
+	}
+}
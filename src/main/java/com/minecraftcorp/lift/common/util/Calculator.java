@@ -5,9 +5,8 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class Calculator {
 
-	public static int compareBlockCoords(int x1, int z1, int x2, int z2) {
-		if (x1 + z1 == x2 + z2) return 0;
-		return x1 + z1 > x2 + z2 ? 1 : -1;
+	public static long toColumnKey(int x, int z) {
+		return ((long) x << 32) | (z & 0xFFFFFFFFL);
 	}
 
 	public boolean isScrollForwards(int newSlot, int previousSlot) {
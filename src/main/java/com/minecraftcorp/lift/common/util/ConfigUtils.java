@@ -3,6 +3,7 @@ package com.minecraftcorp.lift.common.util;
 import com.minecraftcorp.lift.bukkit.LiftPlugin;
 import com.minecraftcorp.lift.common.exception.ConfigurationException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -33,6 +34,23 @@ public class ConfigUtils {
 				});
 	}
 
+	/**
+	 * Copy all instance fields declared by 'clazz' from 'source' to 'target'
+	 */
+	public void copyFields(Object source, Object target, Class<?> clazz) {
+		for (Field field : clazz.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+				continue;
+			}
+			try {
+				field.setAccessible(true);
+				field.set(target, field.get(source));
+			} catch (IllegalAccessException e) {
+				throw new ConfigurationException("Error while applying configuration", e);
+			}
+		}
+	}
+
 	public static void migrateConfig(LiftPlugin plugin, YamlConfiguration config) {
 		Configuration defaultConfig = Objects.requireNonNull(config.getDefaults());
 		int currentVersion = defaultConfig.getInt("configVersion");